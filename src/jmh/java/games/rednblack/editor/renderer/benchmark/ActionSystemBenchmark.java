@@ -0,0 +1,49 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.systems.action.ActionSystem;
+import games.rednblack.editor.renderer.systems.action.Actions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionSystemBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    private BenchmarkWorld world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(4, 16);
+        world = new BenchmarkWorld(rm, new ActionSystem()).load(BenchmarkWorld.scene(entities, 1));
+
+        IntArray leaves = world.getLeaves();
+        for (int i = 0; i < leaves.size; i++) {
+            Actions.addAction(leaves.get(i), Actions.forever(Actions.sequence(
+                    Actions.moveBy(10, 0, 1),
+                    Actions.parallel(Actions.rotateBy(90, 1), Actions.fadeOut(1)),
+                    Actions.moveBy(-10, 0, 1),
+                    Actions.parallel(Actions.rotateBy(-90, 1), Actions.fadeIn(1)))), world.engine);
+        }
+        world.process(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void process() {
+        world.process(1f / 60f);
+    }
+}
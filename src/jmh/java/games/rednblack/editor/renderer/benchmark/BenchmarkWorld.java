@@ -0,0 +1,92 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.artemis.BaseSystem;
+import com.artemis.World;
+import com.artemis.WorldConfigurationBuilder;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.viewport.ScalingViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.factory.EntityFactory;
+import games.rednblack.editor.renderer.resources.IResourceRetriever;
+import games.rednblack.editor.renderer.utils.SyntheticSceneGenerator;
+
+/**
+ * Artemis world with only the systems under test and a scene created by {@link EntityFactory}.
+ */
+public class BenchmarkWorld {
+    public static final long SEED = 42;
+
+    public final World engine;
+    public final EntityFactory entityFactory;
+    public final Viewport viewport;
+    public int root = -1;
+
+    public BenchmarkWorld(IResourceRetriever rm, BaseSystem... systems) {
+        WorldConfigurationBuilder config = new WorldConfigurationBuilder();
+        for (BaseSystem system : systems) {
+            config.with(system);
+        }
+        engine = new World(config.build());
+
+        entityFactory = new EntityFactory();
+        entityFactory.injectExternalItemType(engine, null, null, rm);
+
+        viewport = new ScalingViewport(Scaling.stretch, 1920, 1080, new OrthographicCamera());
+    }
+
+    /**
+     * Scene of images only, spread over a binary tree of composites
+     */
+    public static CompositeItemVO scene(int images, int depth) {
+        SyntheticSceneGenerator generator = new SyntheticSceneGenerator();
+        generator.seed = SEED;
+        generator.images = images;
+        generator.depth = depth;
+        return generator.generateComposite();
+    }
+
+    public BenchmarkWorld load(CompositeItemVO scene) {
+        CompositeItemVO root = new CompositeItemVO(scene);
+        this.root = entityFactory.createRootEntity(root, viewport, 1);
+        entityFactory.initAllChildren(this.root, root);
+        //Flush entity creation
+        process(0);
+        return this;
+    }
+
+    public void process(float delta) {
+        engine.setDelta(delta);
+        engine.process();
+    }
+
+    /**
+     * Collect all the non composite entities of the scene
+     */
+    public IntArray getLeaves() {
+        IntArray leaves = new IntArray();
+        collectLeaves(root, leaves);
+        return leaves;
+    }
+
+    private void collectLeaves(int entity, IntArray leaves) {
+        NodeComponent nodeComponent = engine.getMapper(NodeComponent.class).get(entity);
+        if (nodeComponent == null) {
+            if (engine.getMapper(MainItemComponent.class).has(entity))
+                leaves.add(entity);
+            return;
+        }
+        for (int i = 0; i < nodeComponent.children.size; i++) {
+            collectLeaves(nodeComponent.children.get(i), leaves);
+        }
+    }
+
+    public void dispose() {
+        entityFactory.dispose();
+        engine.dispose();
+    }
+}
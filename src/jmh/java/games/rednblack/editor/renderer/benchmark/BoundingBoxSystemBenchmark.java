@@ -0,0 +1,61 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
+import games.rednblack.editor.renderer.systems.WorldTransformSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundingBoxSystemBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    /** Percentage of images moved at each step */
+    @Param({"0", "10", "100"})
+    public int moving;
+
+    private BenchmarkWorld world;
+    private IntArray moved;
+    private float offset;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(4, 16);
+        world = new BenchmarkWorld(rm, new WorldTransformSystem(), new BoundingBoxSystem())
+                .load(BenchmarkWorld.scene(entities, depth));
+
+        IntArray leaves = world.getLeaves();
+        moved = new IntArray();
+        for (int i = 0; i < leaves.size * moving / 100; i++) {
+            moved.add(leaves.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void process() {
+        offset = -offset + 0.5f;
+        for (int i = 0; i < moved.size; i++) {
+            TransformComponent transform = world.engine.getMapper(TransformComponent.class).get(moved.get(i));
+            transform.setPosition(transform.x + offset, transform.y);
+        }
+        world.process(0);
+    }
+}
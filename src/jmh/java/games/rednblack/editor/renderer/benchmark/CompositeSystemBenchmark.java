@@ -0,0 +1,40 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.systems.CompositeSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeSystemBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"2", "6"})
+    public int depth;
+
+    private BenchmarkWorld world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(4, 16);
+        world = new BenchmarkWorld(rm, new CompositeSystem()).load(BenchmarkWorld.scene(entities, depth));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void process() {
+        world.process(0);
+    }
+}
@@ -0,0 +1,84 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.utils.CpuPolygonSpriteBatch;
+import games.rednblack.editor.renderer.utils.DefaultShaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vertex building cost of {@link CpuPolygonSpriteBatch}, GL calls are no-ops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpuPolygonSpriteBatchBenchmark {
+    @Param({"1000", "10000"})
+    public int sprites;
+
+    /** Number of textures the sprites are spread on */
+    @Param({"1", "4"})
+    public int atlases;
+
+    private CpuPolygonSpriteBatch batch;
+    private TextureRegion[] regions;
+    private float[] positions;
+    private final Matrix4 transform = new Matrix4().setToRotation(0, 0, 1, 15);
+    private final Matrix4 identity = new Matrix4();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(atlases, 16);
+        batch = new CpuPolygonSpriteBatch(2000, new ShaderProgram(DefaultShaders.DEFAULT_VERTEX_SHADER, DefaultShaders.DEFAULT_FRAGMENT_SHADER));
+
+        Random random = new Random(BenchmarkWorld.SEED);
+        regions = new TextureRegion[sprites];
+        positions = new float[sprites * 3];
+        for (int i = 0; i < sprites; i++) {
+            //Sorted by atlas, like a scene with texture sorting
+            regions[i] = rm.getTextureRegion(HeadlessResourceRetriever.regionName(i * atlases / sprites, random.nextInt(16)));
+            positions[i * 3] = random.nextFloat() * 1920;
+            positions[i * 3 + 1] = random.nextFloat() * 1080;
+            positions[i * 3 + 2] = random.nextFloat() * 360;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batch.dispose();
+    }
+
+    @Benchmark
+    public int draw() {
+        batch.begin();
+        for (int i = 0; i < sprites; i++) {
+            TextureRegion region = regions[i];
+            batch.draw(region, positions[i * 3], positions[i * 3 + 1], 32, 32, 64, 64, 1, 1, positions[i * 3 + 2]);
+        }
+        batch.end();
+        return batch.renderCalls;
+    }
+
+    @Benchmark
+    public int drawTransformed() {
+        batch.begin();
+        //Vertices are transformed on CPU instead of flushing
+        batch.setTransformMatrix(transform);
+        for (int i = 0; i < sprites; i++) {
+            TextureRegion region = regions[i];
+            batch.draw(region, positions[i * 3], positions[i * 3 + 1], 32, 32, 64, 64, 1, 1, positions[i * 3 + 2]);
+        }
+        batch.setTransformMatrix(identity);
+        batch.end();
+        return batch.renderCalls;
+    }
+}
@@ -0,0 +1,58 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
+import games.rednblack.editor.renderer.systems.CullingSystem;
+import games.rednblack.editor.renderer.systems.WorldTransformSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CullingSystemBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    /** Threads used by culling and bounding boxes, 1 means serial */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private BenchmarkWorld world;
+    private OrthographicCamera camera;
+    private float offset;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(4, 16);
+        CullingSystem cullingSystem = new CullingSystem();
+        world = new BenchmarkWorld(rm, new WorldTransformSystem(), new BoundingBoxSystem(), cullingSystem)
+                .load(BenchmarkWorld.scene(entities, depth));
+        if (parallelism > 1)
+            cullingSystem.setParallelism(parallelism);
+        camera = (OrthographicCamera) world.viewport.getCamera();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void process() {
+        //Pan the camera so that the visible set changes every step
+        offset = offset > 1000 ? 0 : offset + 16;
+        camera.position.set(960 + offset, 540 + offset, 0);
+        camera.update();
+        world.process(0);
+    }
+}
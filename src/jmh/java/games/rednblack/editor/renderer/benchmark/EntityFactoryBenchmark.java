@@ -0,0 +1,50 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to create all the entities of a scene with {@link games.rednblack.editor.renderer.factory.EntityFactory#initAllChildren}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityFactoryBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    private HeadlessResourceRetriever rm;
+    private CompositeItemVO scene;
+    private BenchmarkWorld world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        rm = new HeadlessResourceRetriever(4, 16);
+        scene = BenchmarkWorld.scene(entities, depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void createWorld() {
+        world = new BenchmarkWorld(rm);
+    }
+
+    @TearDown(Level.Invocation)
+    public void disposeWorld() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public BenchmarkWorld initAllChildren() {
+        return world.load(scene);
+    }
+}
@@ -0,0 +1,54 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Start libGDX without any window or GPU, GL calls are no-ops so benchmarks
+ * measure only the CPU side and can run on any CI box.
+ */
+public final class Headless {
+    private static HeadlessApplication application;
+
+    public static synchronized void init() {
+        if (application != null)
+            return;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        //Never call render, benchmarks drive the world by themselves
+        config.updatesPerSecond = -1;
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class}, new NoOpGL());
+        //Uniforms are never found without a real GL context
+        ShaderProgram.pedantic = false;
+    }
+
+    private static class NoOpGL implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().equals("glCheckFramebufferStatus"))
+                return GL20.GL_FRAMEBUFFER_COMPLETE;
+
+            Class<?> type = method.getReturnType();
+            if (type == int.class) return 0;
+            if (type == boolean.class) return false;
+            if (type == float.class) return 0f;
+            if (type == String.class) return "";
+            return null;
+        }
+    }
+
+    private Headless() {
+
+    }
+}
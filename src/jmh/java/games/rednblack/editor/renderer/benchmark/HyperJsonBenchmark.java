@@ -0,0 +1,44 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.data.SceneVO;
+import games.rednblack.editor.renderer.utils.HyperBinary;
+import games.rednblack.editor.renderer.utils.HyperJson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HyperJsonBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    private String json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SceneVO sceneVO = new SceneVO();
+        sceneVO.sceneName = "benchmark";
+        sceneVO.composite = BenchmarkWorld.scene(entities, depth);
+        json = sceneVO.constructJsonString();
+        binary = new HyperBinary().toBytes(sceneVO);
+    }
+
+    @Benchmark
+    public SceneVO parse() {
+        return HyperJson.getJson().fromJson(SceneVO.class, json);
+    }
+
+    @Benchmark
+    public SceneVO parseBinary() {
+        return new HyperBinary().fromBytes(SceneVO.class, binary);
+    }
+}
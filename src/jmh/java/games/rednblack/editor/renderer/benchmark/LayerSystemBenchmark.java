@@ -0,0 +1,61 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+import games.rednblack.editor.renderer.systems.LayerSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerSystemBenchmark {
+    @Param({"1000", "10000"})
+    public int entities;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    /** Children asking for a new z-index at each step */
+    @Param({"10"})
+    public int reordered;
+
+    private BenchmarkWorld world;
+    private IntArray leaves;
+    private final Random random = new Random(BenchmarkWorld.SEED);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.init();
+        HeadlessResourceRetriever rm = new HeadlessResourceRetriever(4, 16);
+        world = new BenchmarkWorld(rm, new LayerSystem()).load(BenchmarkWorld.scene(entities, depth));
+        leaves = world.getLeaves();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void steady() {
+        world.process(0);
+    }
+
+    @Benchmark
+    public void reorder() {
+        for (int i = 0; i < reordered; i++) {
+            int entity = leaves.get(random.nextInt(leaves.size));
+            ZIndexComponent zIndexComponent = world.engine.getMapper(ZIndexComponent.class).get(entity);
+            zIndexComponent.setZIndex(random.nextInt(entities / ((1 << depth) - 1) + 1));
+            zIndexComponent.needReOrder = true;
+        }
+        world.process(0);
+    }
+}
@@ -0,0 +1,291 @@
+package games.rednblack.editor.renderer.resources;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.*;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import games.rednblack.editor.renderer.data.ProjectInfoVO;
+import games.rednblack.editor.renderer.data.ResolutionEntryVO;
+import games.rednblack.editor.renderer.data.SceneVO;
+
+/**
+ * Stand-in for {@link ResourceManager} that doesn't read any file, all the resources are generated in memory:
+ * <ul>
+ *     <li>atlases of blank {@value #REGION_SIZE}x{@value #REGION_SIZE} regions named {@code atlas<A>_region<R>},
+ *     every region has nine-patch splits so it can be used both by images and nine-patches</li>
+ *     <li>a bitmap font for any name and size, with all printable ASCII glyphs</li>
+ *     <li>the particle effect {@value #PARTICLE_EFFECT}, a single continuous emitter</li>
+ *     <li>scenes added with {@link #addSceneVO(SceneVO)}</li>
+ * </ul>
+ * Textures don't hold any pixel, they only need a GL context, so it works with a headless backend
+ * with a mocked {@link GL20}. Meant to be used with {@link games.rednblack.editor.renderer.utils.SyntheticSceneGenerator}
+ * for load and stress tests.
+ */
+public class HeadlessResourceRetriever implements IResourceRetriever, Disposable {
+    public static final int REGION_SIZE = 64;
+    public static final int NINE_PATCH_SPLIT = 16;
+    public static final String PARTICLE_EFFECT = "synthetic";
+
+    private final int atlasCount;
+    private final int regionsPerAtlas;
+
+    private final ProjectInfoVO projectInfoVO = new ProjectInfoVO();
+    private final ObjectMap<String, TextureAtlas> atlases = new ObjectMap<>();
+    private final ObjectMap<String, TextureAtlas.AtlasRegion> regions = new ObjectMap<>();
+    private final IntMap<BitmapFont> fonts = new IntMap<>();
+    private final ObjectMap<String, SceneVO> scenes = new ObjectMap<>();
+
+    private final Texture fontTexture;
+    private final ParticleEffect particleEffect;
+
+    public HeadlessResourceRetriever(int atlasCount, int regionsPerAtlas) {
+        this.atlasCount = atlasCount;
+        this.regionsPerAtlas = regionsPerAtlas;
+
+        projectInfoVO.pixelToWorld = 1;
+        projectInfoVO.originalResolution.name = "orig";
+        projectInfoVO.originalResolution.width = 1920;
+        projectInfoVO.originalResolution.height = 1080;
+        projectInfoVO.originalResolution.base = 0;
+
+        int columns = (int) Math.ceil(Math.sqrt(regionsPerAtlas));
+        for (int a = 0; a < atlasCount; a++) {
+            TextureAtlas atlas = new TextureAtlas();
+            Texture texture = new Texture(new BlankTextureData(columns * REGION_SIZE, columns * REGION_SIZE));
+            for (int r = 0; r < regionsPerAtlas; r++) {
+                int x = (r % columns) * REGION_SIZE;
+                int y = (r / columns) * REGION_SIZE;
+                TextureAtlas.AtlasRegion region = atlas.addRegion(regionName(a, r), texture, x, y, REGION_SIZE, REGION_SIZE);
+                region.names = new String[]{"split"};
+                region.values = new int[][]{{NINE_PATCH_SPLIT, NINE_PATCH_SPLIT, NINE_PATCH_SPLIT, NINE_PATCH_SPLIT}};
+                regions.put(region.name, region);
+            }
+            atlases.put(atlasName(a), atlas);
+        }
+
+        fontTexture = new Texture(new BlankTextureData(256, 256));
+        particleEffect = createParticleEffect();
+    }
+
+    public static String atlasName(int atlas) {
+        return "atlas" + atlas;
+    }
+
+    public static String regionName(int atlas, int region) {
+        return atlasName(atlas) + "_region" + region;
+    }
+
+    public int getAtlasCount() {
+        return atlasCount;
+    }
+
+    public int getRegionsPerAtlas() {
+        return regionsPerAtlas;
+    }
+
+    public void addSceneVO(SceneVO sceneVO) {
+        scenes.put(sceneVO.sceneName, sceneVO);
+    }
+
+    @Override
+    public TextureRegion getTextureRegion(String name) {
+        return regions.get(name);
+    }
+
+    @Override
+    public TextureAtlas getTextureAtlas(String atlasName) {
+        return atlases.get(atlasName);
+    }
+
+    @Override
+    public boolean hasTextureRegion(String name) {
+        return regions.containsKey(name);
+    }
+
+    @Override
+    public ParticleEffect getParticleEffect(String name) {
+        return PARTICLE_EFFECT.equals(name) ? particleEffect : null;
+    }
+
+    @Override
+    public Array<TextureAtlas.AtlasRegion> getSpriteAnimation(String name) {
+        return null;
+    }
+
+    /**
+     * Fonts are the same for every name and mono flag, glyphs are blank boxes of size/2 x size
+     */
+    @Override
+    public BitmapFont getBitmapFont(String name, int size, boolean mono) {
+        BitmapFont font = fonts.get(size);
+        if (font == null) {
+            font = createFont(size);
+            fonts.put(size, font);
+        }
+        return font;
+    }
+
+    @Override
+    public ShaderProgram getShaderProgram(String shaderName) {
+        return null;
+    }
+
+    @Override
+    public SceneVO getSceneVO(String sceneName) {
+        return scenes.get(sceneName);
+    }
+
+    @Override
+    public ProjectInfoVO getProjectVO() {
+        return projectInfoVO;
+    }
+
+    @Override
+    public ResolutionEntryVO getLoadedResolution() {
+        return projectInfoVO.originalResolution;
+    }
+
+    @Override
+    public Object getExternalItemType(int itemType, String name) {
+        return null;
+    }
+
+    private BitmapFont createFont(int size) {
+        int height = Math.max(1, Math.min(size, fontTexture.getHeight()));
+        int width = Math.max(1, height / 2);
+
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+        data.setLineHeight(height);
+        data.down = -height;
+        data.capHeight = height;
+        data.xHeight = width;
+        data.spaceXadvance = width;
+        for (char c = 32; c < 127; c++) {
+            BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+            glyph.id = c;
+            glyph.width = width;
+            glyph.height = height;
+            glyph.yoffset = -height;
+            glyph.xadvance = width;
+            data.setGlyph(c, glyph);
+        }
+        data.missingGlyph = data.getGlyph('?');
+
+        return new BitmapFont(data, new TextureRegion(fontTexture), true);
+    }
+
+    private ParticleEffect createParticleEffect() {
+        TextureAtlas.AtlasRegion region = regions.get(regionName(0, 0));
+        if (region == null)
+            return new ParticleEffect();
+
+        ParticleEmitter emitter = new ParticleEmitter();
+        emitter.setName(PARTICLE_EFFECT);
+        emitter.setMaxParticleCount(100);
+        emitter.setContinuous(true);
+        emitter.getDuration().setLow(1000);
+        emitter.getEmission().setHigh(50);
+        emitter.getLife().setHigh(1000);
+        emitter.getXScale().setHigh(8);
+        emitter.getVelocity().setActive(true);
+        emitter.getVelocity().setHigh(30, 60);
+        emitter.getAngle().setActive(true);
+        emitter.getAngle().setHigh(0, 360);
+        emitter.getTransparency().setHigh(1);
+        emitter.setImagePaths(Array.with(region.name));
+        emitter.setSprites(Array.with(new Sprite(region)));
+
+        ParticleEffect effect = new ParticleEffect();
+        effect.getEmitters().add(emitter);
+        return effect;
+    }
+
+    @Override
+    public void dispose() {
+        for (TextureAtlas atlas : atlases.values()) {
+            atlas.dispose();
+        }
+        for (BitmapFont font : fonts.values()) {
+            font.dispose();
+        }
+        fontTexture.dispose();
+        atlases.clear();
+        regions.clear();
+        fonts.clear();
+    }
+
+    /**
+     * Texture without pixels, storage is allocated on GPU but never filled
+     */
+    private static class BlankTextureData implements TextureData {
+        private final int width, height;
+
+        BlankTextureData(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        public void prepare() {
+
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new GdxRuntimeException("Blank texture doesn't have a Pixmap.");
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+            Gdx.gl.glTexImage2D(target, 0, GL20.GL_RGBA, width, height, 0, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, null);
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return Pixmap.Format.RGBA8888;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return false;
+        }
+    }
+}
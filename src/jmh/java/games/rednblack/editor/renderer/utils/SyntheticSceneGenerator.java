@@ -0,0 +1,199 @@
+package games.rednblack.editor.renderer.utils;
+
+import games.rednblack.editor.renderer.components.light.LightObjectComponent;
+import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.resources.HeadlessResourceRetriever;
+
+import java.util.Random;
+
+/**
+ * Generate scenes of any size without editor exported files, for load and stress tests.
+ * Items are spread over a tree of composites with {@link #branching} children per composite and
+ * {@link #depth} levels, every composite gets an equal share of each item type.
+ * Resource names refer to {@link HeadlessResourceRetriever}, same configuration and seed always give the same scene.
+ * <pre>
+ * SyntheticSceneGenerator generator = new SyntheticSceneGenerator();
+ * generator.images = 100000;
+ * generator.depth = 4;
+ * HeadlessResourceRetriever rm = new HeadlessResourceRetriever(generator.atlases, generator.regionsPerAtlas);
+ * rm.addSceneVO(generator.generate("Stress"));
+ * </pre>
+ * Unique ids start from 2, 1 is taken by the root entity.
+ */
+public class SyntheticSceneGenerator {
+    public static final String[] LAYERS = {"Default", "Top"};
+    public static final int[] FONT_SIZES = {12, 16, 24, 32};
+
+    public long seed = 42;
+
+    public int images = 0;
+    public int labels = 0;
+    public int ninePatches = 0;
+    public int particles = 0;
+    public int lights = 0;
+    /** Images with a box2d body, in addition to {@link #images} */
+    public int physicsBodies = 0;
+
+    /** Levels of composites, 1 means all items in the root */
+    public int depth = 1;
+    /** Children composites of each non leaf composite */
+    public int branching = 2;
+
+    public int atlases = 4;
+    public int regionsPerAtlas = 16;
+
+    /** Rays of each light, drives the cost of light updates */
+    public int lightRays = 32;
+    /** Percentage of images that have a random rotation */
+    public int rotatedPercent = 25;
+
+    private Random random;
+    private int nextUniqueId;
+    private float area;
+    private final int[] remaining = new int[ItemType.values().length];
+    private final int[] perComposite = new int[ItemType.values().length];
+
+    private enum ItemType {IMAGE, LABEL, NINE_PATCH, PARTICLE, LIGHT, PHYSICS}
+
+    public SceneVO generate(String sceneName) {
+        SceneVO sceneVO = new SceneVO();
+        sceneVO.sceneName = sceneName;
+        sceneVO.composite = generateComposite();
+        sceneVO.lightsPropertiesVO.enabled = lights > 0;
+        return sceneVO;
+    }
+
+    /**
+     * @return the root composite of the scene
+     */
+    public CompositeItemVO generateComposite() {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be >= 1.");
+        if (branching < 1) throw new IllegalArgumentException("Branching must be >= 1.");
+
+        random = new Random(seed);
+        nextUniqueId = 2;
+
+        remaining[ItemType.IMAGE.ordinal()] = images;
+        remaining[ItemType.LABEL.ordinal()] = labels;
+        remaining[ItemType.NINE_PATCH.ordinal()] = ninePatches;
+        remaining[ItemType.PARTICLE.ordinal()] = particles;
+        remaining[ItemType.LIGHT.ordinal()] = lights;
+        remaining[ItemType.PHYSICS.ordinal()] = physicsBodies;
+
+        int composites = 0;
+        for (int level = 0, count = 1; level < depth; level++, count *= branching) {
+            composites += count;
+        }
+        int total = 0;
+        for (int i = 0; i < remaining.length; i++) {
+            perComposite[i] = (remaining[i] + composites - 1) / composites;
+            total += remaining[i];
+        }
+        area = (float) Math.sqrt(Math.max(1, total)) * HeadlessResourceRetriever.REGION_SIZE;
+
+        CompositeItemVO root = new CompositeItemVO();
+        fill(root, depth);
+        random = null;
+        return root;
+    }
+
+    /**
+     * @return total number of items, composites included, the root is not counted
+     */
+    public int getItemCount() {
+        int composites = 0;
+        for (int level = 1, count = branching; level < depth; level++, count *= branching) {
+            composites += count;
+        }
+        return images + labels + ninePatches + particles + lights + physicsBodies + composites;
+    }
+
+    private void fill(CompositeItemVO composite, int depth) {
+        for (String layer : LAYERS) {
+            composite.layers.add(new LayerItemVO(layer));
+        }
+
+        int zIndex = 0;
+        for (ItemType type : ItemType.values()) {
+            int index = type.ordinal();
+            for (int i = 0; i < perComposite[index] && remaining[index] > 0; i++, remaining[index]--) {
+                MainItemVO item = createItem(type);
+                item.uniqueId = nextUniqueId++;
+                item.layerName = LAYERS[random.nextInt(LAYERS.length)];
+                item.x = random.nextFloat() * area;
+                item.y = random.nextFloat() * area;
+                item.zIndex = zIndex++;
+                composite.addItem(item);
+            }
+        }
+
+        if (depth <= 1)
+            return;
+
+        for (int i = 0; i < branching; i++) {
+            CompositeItemVO child = new CompositeItemVO();
+            child.uniqueId = nextUniqueId++;
+            child.layerName = LAYERS[0];
+            child.x = random.nextFloat() * area * 0.1f;
+            child.y = random.nextFloat() * area * 0.1f;
+            child.zIndex = zIndex++;
+            fill(child, depth - 1);
+            composite.addItem(child);
+        }
+    }
+
+    private MainItemVO createItem(ItemType type) {
+        switch (type) {
+            case LABEL:
+                LabelVO label = new LabelVO();
+                label.style = "synthetic";
+                label.size = FONT_SIZES[random.nextInt(FONT_SIZES.length)];
+                label.text = "Label " + nextUniqueId;
+                label.width = label.size * label.text.length() / 2f;
+                label.height = label.size;
+                return label;
+            case NINE_PATCH:
+                Image9patchVO ninePatch = new Image9patchVO();
+                ninePatch.imageName = randomRegion();
+                ninePatch.width = HeadlessResourceRetriever.REGION_SIZE * (1 + random.nextInt(4));
+                ninePatch.height = HeadlessResourceRetriever.REGION_SIZE * (1 + random.nextInt(4));
+                return ninePatch;
+            case PARTICLE:
+                ParticleEffectVO particle = new ParticleEffectVO();
+                particle.particleName = HeadlessResourceRetriever.PARTICLE_EFFECT;
+                return particle;
+            case LIGHT:
+                LightVO light = new LightVO();
+                light.type = random.nextBoolean() ? LightObjectComponent.LightType.POINT : LightObjectComponent.LightType.CONE;
+                light.rays = lightRays;
+                light.distance = 100 + random.nextInt(300);
+                light.directionDegree = random.nextInt(360);
+                light.isStatic = random.nextBoolean();
+                return light;
+            case PHYSICS:
+                SimpleImageVO body = createImage();
+                body.physics = new PhysicsBodyDataVO();
+                body.physics.bodyType = random.nextInt(3);
+                body.physics.density = 1;
+                body.physics.friction = 0.5f;
+                body.physics.allowSleep = true;
+                body.physics.awake = true;
+                body.shape = PolygonShapeVO.createRect(HeadlessResourceRetriever.REGION_SIZE, HeadlessResourceRetriever.REGION_SIZE);
+                return body;
+            default:
+                return createImage();
+        }
+    }
+
+    private SimpleImageVO createImage() {
+        SimpleImageVO image = new SimpleImageVO();
+        image.imageName = randomRegion();
+        if (random.nextInt(100) < rotatedPercent)
+            image.rotation = random.nextFloat() * 360;
+        return image;
+    }
+
+    private String randomRegion() {
+        return HeadlessResourceRetriever.regionName(random.nextInt(atlases), random.nextInt(regionsPerAtlas));
+    }
+}
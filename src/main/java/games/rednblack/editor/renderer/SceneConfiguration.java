@@ -17,6 +17,7 @@ import games.rednblack.editor.renderer.systems.action.ActionSystem;
 import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
 import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
 import games.rednblack.editor.renderer.utils.CpuPolygonSpriteBatch;
+import games.rednblack.editor.renderer.utils.FrameStatsRecorder;
 
 import static games.rednblack.editor.renderer.SceneLoader.createDefaultShader;
 
@@ -33,6 +34,7 @@ public class SceneConfiguration {
     // Artemis World, our Engine - config
     private final Array<SystemData<?>> systems = new Array<>();
     private int expectedEntityCount = 128;
+    private int frameStatsCapacity = FrameStatsRecorder.DEFAULT_CAPACITY;
 
     private final ObjectMap<String, ObjectSet<Class<? extends Component>>> tagTransmuters = new ObjectMap<>();
 
@@ -54,6 +56,7 @@ public class SceneConfiguration {
         addSystem(new LabelSystem());
         addSystem(new ScriptSystem());
         addSystem(new ActionSystem());
+        addSystem(new WorldTransformSystem());
         addSystem(new BoundingBoxSystem());
         addSystem(new CullingSystem());
         addSystem(new HyperLap2dRenderer(batch));
@@ -91,6 +94,38 @@ public class SceneConfiguration {
         this.cullingEnabled = cullingEnabled;
     }
 
+    /**
+     * Draw entities without a physics body interpolated between logic steps, disabled by default.
+     * Removes stutter of entities moved by actions or scripts when the display refresh rate is higher than the logic step.
+     */
+    public void setTransformInterpolationEnabled(boolean enabled) {
+        if (enabled)
+            addSystem(WorldConfigurationBuilder.Priority.HIGH, new TransformInterpolationSystem());
+        else
+            removeSystem(TransformInterpolationSystem.class);
+    }
+
+    /**
+     * Create only entities of root's items around the camera and retire far ones, disabled by default.
+     * Configure chunks with {@link SceneStreamingSystem} retrieved with {@link #getSystem(Class)}.
+     */
+    public void setStreamingEnabled(boolean enabled) {
+        if (enabled)
+            addSystem(WorldConfigurationBuilder.Priority.HIGH, new SceneStreamingSystem());
+        else
+            removeSystem(SceneStreamingSystem.class);
+    }
+
+    /**
+     * Compare transform and dimensions fields of every entity each step, disabled by default.
+     * Needed only by code writing {@link games.rednblack.editor.renderer.components.TransformComponent} or
+     * {@link games.rednblack.editor.renderer.components.DimensionsComponent} fields directly without calling markDirty().
+     */
+    public void setDirectWritesDetectionEnabled(boolean enabled) {
+        if (containsSystem(WorldTransformSystem.class))
+            getSystem(WorldTransformSystem.class).setDetectDirectWrites(enabled);
+    }
+
     public void addExternalItemType(IExternalItemType itemType) {
         externalItemTypes.add(itemType);
         addSystem(itemType.getSystem());
@@ -145,6 +180,13 @@ public class SceneConfiguration {
         this.expectedEntityCount = expectedEntityCount;
     }
 
+    /**
+     * Number of frames kept in {@link SceneLoader#getFrameStats()} history
+     */
+    public void setFrameStatsCapacity(int frameStatsCapacity) {
+        this.frameStatsCapacity = frameStatsCapacity;
+    }
+
     public void setInvocationStrategy(SystemInvocationStrategy invocationStrategy) {
         this.invocationStrategy = invocationStrategy;
     }
@@ -194,6 +236,14 @@ public class SceneConfiguration {
         return invocationStrategy;
     }
 
+    public boolean isTransformInterpolationEnabled() {
+        return containsSystem(TransformInterpolationSystem.class);
+    }
+
+    public boolean isStreamingEnabled() {
+        return containsSystem(SceneStreamingSystem.class);
+    }
+
     public boolean isCullingEnabled() {
         return cullingEnabled;
     }
@@ -214,6 +264,10 @@ public class SceneConfiguration {
         return expectedEntityCount;
     }
 
+    public int getFrameStatsCapacity() {
+        return frameStatsCapacity;
+    }
+
     public void addTagTransmuter(String tag, Class<? extends Component> component) {
         ObjectSet<Class<? extends Component>> components = tagTransmuters.get(tag);
         if (components == null) {
@@ -8,7 +8,9 @@ import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.ScalingViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
@@ -25,16 +27,22 @@ import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.data.*;
 import games.rednblack.editor.renderer.factory.ActionFactory;
 import games.rednblack.editor.renderer.factory.EntityFactory;
+import games.rednblack.editor.renderer.factory.EntityRecycler;
+import games.rednblack.editor.renderer.factory.IncrementalEntityLoader;
+import games.rednblack.editor.renderer.factory.Prefab;
 import games.rednblack.editor.renderer.resources.IResourceRetriever;
 import games.rednblack.editor.renderer.scripts.BasicScript;
 import games.rednblack.editor.renderer.scripts.IScript;
 import games.rednblack.editor.renderer.systems.PhysicsSystem;
+import games.rednblack.editor.renderer.systems.SceneStreamingSystem;
 import games.rednblack.editor.renderer.systems.action.Actions;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
 import games.rednblack.editor.renderer.systems.render.FrameBufferManager;
 import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
+import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
 import games.rednblack.editor.renderer.utils.ComponentRetriever;
 import games.rednblack.editor.renderer.utils.DefaultShaders;
+import games.rednblack.editor.renderer.utils.FrameStatsRecorder;
 
 /**
  * SceneLoader is important part of runtime that utilizes provided
@@ -56,7 +64,11 @@ public class SceneLoader {
     private IResourceRetriever rm;
     private HyperLap2dRenderer renderer;
     private EntityFactory entityFactory;
+    private EntityRecycler entityRecycler;
     private final IntMap<IExternalItemType> externalItemTypes = new IntMap<>();
+    private final ObjectMap<String, Prefab> prefabs = new ObjectMap<>();
+    //Reused by the by-tag helpers
+    private final IntBag tagScratch = new IntBag();
 
     // Initialised when injectExternalItemType is called
 
@@ -76,6 +88,7 @@ public class SceneLoader {
     private int rootEntity;
     private DirectionalLight sceneDirectionalLight;
     private ActionFactory actionFactory;
+    private FrameStatsRecorder frameStats;
 
     public SceneLoader(SceneConfiguration configuration) {
 
@@ -100,7 +113,8 @@ public class SceneLoader {
         for (SceneConfiguration.SystemData<?> data : configuration.getSystems()) {
             config.with(data.priority, data.system);
         }
-        config.register(configuration.getInvocationStrategy());
+        SystemInvocationStrategy invocationStrategy = configuration.getInvocationStrategy();
+        config.register(invocationStrategy);
         WorldConfiguration build = config.build();
         build.expectedEntityCount(configuration.getExpectedEntityCount());
         build.setAlwaysDelayComponentRemoval(true);
@@ -122,6 +136,21 @@ public class SceneLoader {
 
         entityFactory.injectExternalItemType(engine, rayHandler, world, rm);
         entityFactory.buildTagTransmuters(configuration.getTagTransmuters());
+        entityRecycler = new EntityRecycler(engine, entityFactory);
+
+        SceneStreamingSystem streamingSystem = engine.getSystem(SceneStreamingSystem.class);
+        if (streamingSystem != null)
+            streamingSystem.setEntityFactory(entityFactory);
+
+        frameStats = new FrameStatsRecorder(configuration.getFrameStatsCapacity());
+        frameStats.setBatch(renderer.getBatch());
+        frameStats.setRayHandler(rayHandler);
+        renderer.setFrameStats(frameStats);
+        if (invocationStrategy instanceof HyperLap2dInvocationStrategy) {
+            ((HyperLap2dInvocationStrategy) invocationStrategy).setFrameStats(frameStats);
+            ((HyperLap2dInvocationStrategy) invocationStrategy).setCommandBuffer(entityFactory.getCommandBuffer());
+            ((HyperLap2dInvocationStrategy) invocationStrategy).setIncrementalLoader(entityFactory.getIncrementalLoader());
+        }
     }
 
     public void setResolution(String resolutionName) {
@@ -144,6 +173,11 @@ public class SceneLoader {
                     public void removed(IntBag entities) {
                         for (int i = 0; i < entities.size(); i++) {
                             int entity = entities.get(i);
+
+                            MainItemComponent mainItemComponent = mainItemCM.get(entity);
+                            if (mainItemComponent != null)
+                                entityFactory.getTagIndex().removeAll(mainItemComponent.tags, entity);
+
                             ParentNodeComponent parentComponent = parentNodeCM.get(entity);
 
                             if (parentComponent == null) {
@@ -161,7 +195,8 @@ public class SceneLoader {
                             NodeComponent nodeComponent = nodeCM.get(entity);
                             if (nodeComponent != null) {
                                 // it is composite
-                                for (int node : nodeComponent.children) {
+                                for (int j = 0; j < nodeComponent.children.size; j++) {
+                                    int node = nodeComponent.children.get(j);
                                     if (engine.getEntityManager().isActive(node))
                                         engine.delete(node);
                                 }
@@ -212,8 +247,35 @@ public class SceneLoader {
     }
 
     public SceneVO loadScene(SceneVO vo, Viewport viewport, boolean customLight) {
+        return loadScene(vo, viewport, customLight, null);
+    }
+
+    /**
+     * Load a scene creating root's children a bounded amount per frame on the world thread, so the transition
+     * doesn't hitch. The scene is complete when the listener is notified, see {@link IncrementalEntityLoader}
+     * <p>
+     * Not available with {@link SceneStreamingSystem}, that already creates root's children chunk by chunk
+     * and notifies its own {@link SceneStreamingSystem.ChunkListener}.
+     *
+     * @throws IllegalStateException if scene streaming is enabled
+     */
+    public SceneVO loadSceneIncremental(String sceneName, IncrementalEntityLoader.LoadListener listener) {
+        ProjectInfoVO projectVO = rm.getProjectVO();
+        Viewport viewport = new ScalingViewport(Scaling.stretch, (float) projectVO.originalResolution.width / pixelsPerWU, (float) projectVO.originalResolution.height / pixelsPerWU, new OrthographicCamera());
+        return loadSceneIncremental(sceneName, viewport, listener);
+    }
+
+    public SceneVO loadSceneIncremental(String sceneName, Viewport viewport, IncrementalEntityLoader.LoadListener listener) {
+        return loadScene(rm.getSceneVO(sceneName), viewport, false, listener);
+    }
+
+    private SceneVO loadScene(SceneVO vo, Viewport viewport, boolean customLight, IncrementalEntityLoader.LoadListener listener) {
         assert engine != null : "You need to first create an engine by calling createEngine";
 
+        SceneStreamingSystem streamingSystem = engine.getSystem(SceneStreamingSystem.class);
+        if (streamingSystem != null && listener != null)
+            throw new IllegalStateException("Incremental loading isn't available with scene streaming, use SceneStreamingSystem.ChunkListener.");
+
         IntBag entities = engine.getAspectSubscriptionManager()
                 .get(Aspect.all())
                 .getEntities();
@@ -241,7 +303,11 @@ public class SceneLoader {
         }
         rootEntity = entityFactory.createRootEntity(sceneVO.composite, viewport, pixelsPerWU);
 
-        if (sceneVO.composite != null) {
+        if (streamingSystem != null) {
+            streamingSystem.setScene(rootEntity, sceneVO.composite);
+        } else if (listener != null) {
+            entityFactory.initAllChildrenIncremental(rootEntity, sceneVO.composite, listener);
+        } else {
             entityFactory.initAllChildren(rootEntity, sceneVO.composite);
         }
         if (!customLight) {
@@ -258,22 +324,84 @@ public class SceneLoader {
     }
 
     public int loadFromLibrary(String libraryName, String layerName, float x, float y) {
-        ProjectInfoVO projectInfoVO = getRm().getProjectVO();
-        CompositeItemVO compositeItemVO = projectInfoVO.libraryItems.get(libraryName);
-
-        if (compositeItemVO != null) {
-            compositeItemVO.layerName = layerName;
-            compositeItemVO.x = x;
-            compositeItemVO.y = y;
+        Prefab prefab = getPrefab(libraryName);
 
-            int compositeEntity = entityFactory.createEntity(getRoot(), compositeItemVO);
-            getEntityFactory().initAllChildren(compositeEntity, compositeItemVO);
-            return compositeEntity;
+        if (prefab != null) {
+            return prefab.instantiate(getRoot(), layerName, x, y);
         }
 
         return -1;
     }
 
+    /**
+     * Create an instance of the library item for each position
+     *
+     * @param positions x and y of each instance
+     * @param out       filled with the root entity of each instance
+     */
+    public void loadFromLibrary(String libraryName, String layerName, float[] positions, IntArray out) {
+        Prefab prefab = getPrefab(libraryName);
+
+        if (prefab != null) {
+            prefab.instantiate(getRoot(), layerName, positions, out);
+        }
+    }
+
+    /**
+     * @return library item resolved for fast instantiation, built the first time it is requested.
+     * null if the library item doesn't exist
+     */
+    public Prefab getPrefab(String libraryName) {
+        Prefab prefab = prefabs.get(libraryName);
+        if (prefab == null) {
+            CompositeItemVO compositeItemVO = getRm().getProjectVO().libraryItems.get(libraryName);
+            if (compositeItemVO == null)
+                return null;
+
+            prefab = new Prefab(entityFactory, compositeItemVO);
+            prefabs.put(libraryName, prefab);
+        }
+        return prefab;
+    }
+
+    /**
+     * Discard built prefabs, needed after library items are changed adding or removing components
+     */
+    public void clearPrefabs() {
+        entityRecycler.clear();
+        prefabs.clear();
+    }
+
+    /**
+     * Enable reuse of despawned instances of a library item, see {@link EntityRecycler}.
+     * Disabling it deletes the instances waiting in the pool
+     */
+    public void setRecycling(String libraryName, boolean recycling) {
+        Prefab prefab = getPrefab(libraryName);
+        if (prefab == null)
+            return;
+
+        if (!recycling && prefab.getRecycler() != null)
+            entityRecycler.clear(prefab);
+        prefab.setRecycler(recycling ? entityRecycler : null);
+    }
+
+    /**
+     * Remove an item loaded from the library, instances of library items with recycling enabled go back to their pool
+     * and are reused by {@link #loadFromLibrary(String, String, float, float)}, other entities are deleted
+     */
+    public void despawn(int entity) {
+        if (entityRecycler.isRecyclable(entity)) {
+            entityRecycler.despawn(entity);
+        } else {
+            engine.delete(entity);
+        }
+    }
+
+    public EntityRecycler getEntityRecycler() {
+        return entityRecycler;
+    }
+
     public CompositeItemVO loadVoFromLibrary(String libraryName) {
         ProjectInfoVO projectInfoVO = getRm().getProjectVO();
         return projectInfoVO.libraryItems.get(libraryName);
@@ -287,20 +415,40 @@ public class SceneLoader {
         return actionFactory;
     }
 
-    public void addComponentByTagName(String tagName, Class<? extends Component> componentClass) {
-        IntBag entities = engine.getAspectSubscriptionManager()
-                .get(Aspect.all(MainItemComponent.class))
-                .getEntities();
+    /**
+     * @return entities with the tag, the bag is owned by the tag index and must not be modified.
+     * It changes as soon as a tag is added or removed, copy it to change tags while iterating.
+     */
+    public IntBag getEntitiesByTag(String tagName) {
+        return entityFactory.getTagIndex().get(tagName);
+    }
 
-        for (int i = 0, s = entities.size(); s > i; i++) {
-            int id = entities.get(i);
+    /**
+     * Copy of the entities with the tag, safe to iterate while scripts, components or actions change tags.
+     * The by-tag helpers don't call back into user code while iterating, so one scratch bag is enough.
+     */
+    private IntBag copyEntitiesByTag(String tagName) {
+        tagScratch.clear();
+        tagScratch.addAll(getEntitiesByTag(tagName));
+        return tagScratch;
+    }
 
-            MainItemComponent mainItemComponent = mainItemCM.get(id);
-            for (String tag : mainItemComponent.tags) {
-                if (tag.equals(tagName)) {
-                    engine.edit(id).create(componentClass);
-                }
-            }
+    /**
+     * Same as adding the tag to {@link MainItemComponent#tags}
+     */
+    public void addTag(int entity, String tagName) {
+        mainItemCM.get(entity).tags.add(tagName);
+    }
+
+    public void removeTag(int entity, String tagName) {
+        mainItemCM.get(entity).tags.remove(tagName);
+    }
+
+    public void addComponentByTagName(String tagName, Class<? extends Component> componentClass) {
+        IntBag entities = copyEntitiesByTag(tagName);
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); s > i; i++) {
+            engine.edit(ids[i]).create(componentClass);
         }
     }
 
@@ -309,18 +457,10 @@ public class SceneLoader {
      *
      */
     public void addActionByTagName(String tagName, String action) {
-        IntBag entities = engine.getAspectSubscriptionManager()
-                .get(Aspect.all(MainItemComponent.class))
-                .getEntities();
-
+        IntBag entities = copyEntitiesByTag(tagName);
+        int[] ids = entities.getData();
         for (int i = 0, s = entities.size(); s > i; i++) {
-            int id = entities.get(i);
-            MainItemComponent mainItemComponent = mainItemCM.get(id);
-            for (String tag : mainItemComponent.tags) {
-                if (tag.equals(tagName)) {
-                    Actions.addAction(id, loadActionFromLibrary(action), engine);
-                }
-            }
+            Actions.addAction(ids[i], loadActionFromLibrary(action), engine);
         }
     }
 
@@ -329,18 +469,10 @@ public class SceneLoader {
      *
      */
     public void addActionByTagName(String tagName, ActionData action) {
-        IntBag entities = engine.getAspectSubscriptionManager()
-                .get(Aspect.all(MainItemComponent.class))
-                .getEntities();
-
+        IntBag entities = copyEntitiesByTag(tagName);
+        int[] ids = entities.getData();
         for (int i = 0, s = entities.size(); s > i; i++) {
-            int id = entities.get(i);
-            MainItemComponent mainItemComponent = mainItemCM.get(id);
-            for (String tag : mainItemComponent.tags) {
-                if (tag.equals(tagName)) {
-                    Actions.addAction(id, action, engine);
-                }
-            }
+            Actions.addAction(ids[i], action, engine);
         }
     }
 
@@ -351,23 +483,16 @@ public class SceneLoader {
      * @param scriptClazz script class definition
      */
     public <T extends BasicScript> void addScriptByTagName(String tagName, Class<T> scriptClazz) {
-        IntBag entities = engine.getAspectSubscriptionManager()
-                .get(Aspect.all(MainItemComponent.class))
-                .getEntities();
-
+        IntBag entities = copyEntitiesByTag(tagName);
+        int[] ids = entities.getData();
         for (int i = 0, s = entities.size(); s > i; i++) {
-            int id = entities.get(i);
-            MainItemComponent mainItemComponent = mainItemCM.get(id);
-            for (String tag : mainItemComponent.tags) {
-                if (tag.equals(tagName)) {
-                    ScriptComponent component = scriptCM.get(id);
-                    if(component == null) {
-                        component = scriptCM.create(id);
-                        component.engine = engine;
-                    }
-                    T script = component.addScript(scriptClazz);
-                }
+            int id = ids[i];
+            ScriptComponent component = scriptCM.get(id);
+            if(component == null) {
+                component = scriptCM.create(id);
+                component.engine = engine;
             }
+            T script = component.addScript(scriptClazz);
         }
     }
 
@@ -376,23 +501,16 @@ public class SceneLoader {
      * @param script script instance
      */
     public void addScriptByTagName(String tagName, IScript script) {
-        IntBag entities = engine.getAspectSubscriptionManager()
-                .get(Aspect.all(MainItemComponent.class))
-                .getEntities();
-
+        IntBag entities = copyEntitiesByTag(tagName);
+        int[] ids = entities.getData();
         for (int i = 0, s = entities.size(); s > i; i++) {
-            int id = entities.get(i);
-            MainItemComponent mainItemComponent = mainItemCM.get(id);
-            for (String tag : mainItemComponent.tags) {
-                if (tag.equals(tagName)) {
-                    ScriptComponent component = scriptCM.get(id);
-                    if (component == null) {
-                        component = scriptCM.create(id);
-                        component.engine = engine;
-                    }
-                    component.addScript(script);
-                }
+            int id = ids[i];
+            ScriptComponent component = scriptCM.get(id);
+            if (component == null) {
+                component = scriptCM.create(id);
+                component.engine = engine;
             }
+            component.addScript(script);
         }
     }
 
@@ -455,6 +573,8 @@ public class SceneLoader {
         rayHandler.dispose();
         world.dispose();
         entityFactory.dispose();
+        if (engine.getInvocationStrategy() instanceof HyperLap2dInvocationStrategy)
+            ((HyperLap2dInvocationStrategy) engine.getInvocationStrategy()).dispose();
     }
 
     public EntityFactory getEntityFactory() {
@@ -506,6 +626,14 @@ public class SceneLoader {
         return renderer.getFrameBufferManager();
     }
 
+    /**
+     * Per frame statistics: systems timings, drawn and culled entities, render calls by cause,
+     * FBO switches, lights and rays. Disabled by default, enable with {@link FrameStatsRecorder#setEnabled(boolean)}.
+     */
+    public FrameStatsRecorder getFrameStats() {
+        return frameStats;
+    }
+
     public IExternalItemType getExternalItemType(int type) {
         return externalItemTypes.get(type);
     }
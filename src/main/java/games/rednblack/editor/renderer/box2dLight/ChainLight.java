@@ -445,6 +445,7 @@ public class ChainLight extends Light {
             tmpStart.y = startY[i];
             if (rayHandler.world != null && !xray) {
                 rayHandler.world.rayCast(ray, tmpStart, tmpEnd);
+                rayHandler.raysCast++;
             }
         }
         setMesh();
@@ -155,6 +155,7 @@ public class DirectionalLight extends Light {
 
 			if (rayHandler.world != null && !xray && !rayHandler.pseudo3d) {
 				rayHandler.world.rayCast(ray, start[i], end[i]);
+				rayHandler.raysCast++;
 			}
 		}
 
@@ -249,6 +249,7 @@ public abstract class PositionalLight extends Light {
 			my[i] = tmpEnd.y;
 			if (rayHandler.world != null && !xray && !rayHandler.pseudo3d) {
 				rayHandler.world.rayCast(ray, start, tmpEnd);
+				rayHandler.raysCast++;
 			}
 		}
 		setMesh();
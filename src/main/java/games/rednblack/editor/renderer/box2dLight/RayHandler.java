@@ -117,6 +117,9 @@ public class RayHandler implements Disposable {
 	/** How many lights passed culling and rendered to scene last time */
 	int lightRenderedLastFrame = 0;
 
+	/** How many rays have been cast against box2d world, never reset */
+	long raysCast = 0;
+
 	/** camera matrix corners */
 	float x1, x2, y1, y2;
 	OrthographicCamera camera;
@@ -721,6 +724,20 @@ public class RayHandler implements Disposable {
 		lightMap.lightMapDrawingDisabled = !isAutomatic;
 	}
 
+	/**
+	 * @return how many lights passed culling and rendered to scene last time
+	 */
+	public int getLightRenderedLastFrame() {
+		return lightRenderedLastFrame;
+	}
+
+	/**
+	 * @return how many rays have been cast against box2d world since creation
+	 */
+	public long getRaysCast() {
+		return raysCast;
+	}
+
 	/**
 	 * Expert functionality
 	 * 
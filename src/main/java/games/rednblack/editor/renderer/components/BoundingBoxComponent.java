@@ -9,8 +9,20 @@ public class BoundingBoxComponent extends PooledComponent {
     public Rectangle rectangle = new Rectangle();
 
     public Vector2[] points = new Vector2[4];
+
+    /**
+     * @deprecated changes are detected with transform and dimensions versions, the value is only bumped every time
+     * the box is recalculated. Use {@link #invalidate()} to force a new calculation.
+     */
+    @Deprecated
     public float checksum;
 
+    /** Versions of the scene transform and dimensions used to compute the box */
+    public transient int transformVersion = -1;
+    public transient int dimensionsVersion = -1;
+    /** Last frame the box has been processed by BoundingBoxSystem in parallel mode */
+    public transient int frame = -1;
+
     {
         points[0] = new Vector2();
         points[1] = new Vector2();
@@ -31,12 +43,22 @@ public class BoundingBoxComponent extends PooledComponent {
         return rectangle;
     }
 
+    /**
+     * Force the bounding box to be recalculated on next update.
+     */
+    public void invalidate() {
+        transformVersion = -1;
+        dimensionsVersion = -1;
+    }
+
     @Override
     public void reset() {
         rectangle.set(0, 0, 0, 0);
         for (Vector2 vector2 : points) {
             vector2.set(0, 0);
         }
+        frame = -1;
         checksum = 0;
+        invalidate();
     }
 }
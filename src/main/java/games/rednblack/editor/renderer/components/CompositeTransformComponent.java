@@ -7,6 +7,8 @@ public class CompositeTransformComponent extends PooledComponent {
 	public boolean automaticResize = true;
 	public boolean scissorsEnabled = false;
 	public boolean renderToFBO = false;
+	//Children never move, their vertices are baked once and replayed until one of them changes
+	public boolean isStatic = false;
 
 	public final Rectangle scissors = new Rectangle();
 	public final Rectangle clipBounds = new Rectangle();
@@ -18,6 +20,7 @@ public class CompositeTransformComponent extends PooledComponent {
 		automaticResize = true;
 		scissorsEnabled = false;
 		renderToFBO = false;
+		isStatic = false;
 
 		scissors.set(0, 0, 0, 0);
 		clipBounds.set(0, 0, 0, 0);
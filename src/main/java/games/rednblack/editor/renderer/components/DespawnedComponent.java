@@ -0,0 +1,16 @@
+package games.rednblack.editor.renderer.components;
+
+import com.artemis.PooledComponent;
+import com.artemis.annotations.Transient;
+
+/**
+ * Marks entities of a recycled library item waiting in its pool, systems exclude them.
+ * See {@link games.rednblack.editor.renderer.factory.EntityRecycler}
+ */
+@Transient
+public class DespawnedComponent extends PooledComponent {
+    @Override
+    public void reset() {
+
+    }
+}
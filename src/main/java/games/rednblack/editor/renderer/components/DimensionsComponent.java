@@ -7,6 +7,10 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 
+/**
+ * Size of an entity. As for {@link TransformComponent}, changes are tracked with a version bumped by the setters,
+ * call {@link #markDirty()} after writing fields directly.
+ */
 public class DimensionsComponent extends PooledComponent {
     public float width = 0;
     public float height = 0;
@@ -14,6 +18,55 @@ public class DimensionsComponent extends PooledComponent {
     public Rectangle boundBox;
     public Polygon polygon;
 
+    //Version is bumped by setters and markDirty(), see updateVersion() for fields written directly
+    private transient int version = 0;
+    private transient float lastWidth, lastHeight;
+    private transient Polygon lastPolygon;
+    private transient final Rectangle lastPolygonBounds = new Rectangle();
+
+    public void setSize(float width, float height) {
+        this.width = width;
+        this.height = height;
+        markDirty();
+    }
+
+    /**
+     * Force a new version of this dimensions
+     */
+    public void markDirty() {
+        version++;
+        storeLastState();
+    }
+
+    /**
+     * Compare fields with the state of the last check and bump the version if something changed,
+     * used only when {@link games.rednblack.editor.renderer.systems.WorldTransformSystem} detects direct writes.
+     *
+     * @return current version
+     */
+    public int updateVersion() {
+        boolean changed = width != lastWidth || height != lastHeight || polygon != lastPolygon;
+        if (!changed && polygon != null) {
+            Rectangle bounds = polygon.getBoundingRectangle();
+            changed = !bounds.equals(lastPolygonBounds);
+        }
+        if (changed)
+            markDirty();
+        return version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    private void storeLastState() {
+        lastWidth = width;
+        lastHeight = height;
+        lastPolygon = polygon;
+        if (polygon != null)
+            lastPolygonBounds.set(polygon.getBoundingRectangle());
+    }
+
     public boolean hit(float x, float y) {
         if (polygon != null) {
             return polygon.contains(x, y);
@@ -33,6 +86,7 @@ public class DimensionsComponent extends PooledComponent {
             vertices[i * 2 + 1] = (verticesArray.get(i).y);
         }
         polygon = new Polygon(vertices);
+        markDirty();
     }
 
     @Override
@@ -41,5 +95,6 @@ public class DimensionsComponent extends PooledComponent {
         height = 0;
         boundBox = null;
         polygon = null;
+        version++;
     }
 }
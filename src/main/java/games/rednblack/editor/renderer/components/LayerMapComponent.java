@@ -12,12 +12,16 @@ public class LayerMapComponent  extends PooledComponent {
 
 	private final HashMap<String, LayerItemVO> layerMap = new HashMap<>();
 
+	//Bumped every time layers are added, removed, renamed or reordered
+	private transient int version = 0;
+
 	public void setLayers(Array<LayerItemVO> layersToAdd) {
 		this.layers.addAll(layersToAdd);
 		layerMap.clear();
 		for (LayerItemVO vo : layers) {
 			layerMap.put(vo.layerName, vo);
 		}
+		version++;
 	}
 
 	public LayerItemVO getLayer(String name) {
@@ -44,11 +48,13 @@ public class LayerMapComponent  extends PooledComponent {
 	public void addLayer(int index, LayerItemVO layerVo) {
 		layers.insert(index, layerVo);
 		layerMap.put(layerVo.layerName, layerVo);
+		version++;
 	}
 
 	public void addLayer(LayerItemVO layerVo) {
 		layers.add(layerVo);
 		layerMap.put(layerVo.layerName, layerVo);
+		version++;
 	}
 
 	public Array<LayerItemVO> getLayers() {
@@ -58,6 +64,7 @@ public class LayerMapComponent  extends PooledComponent {
 	public void deleteLayer(String layerName) {
 		layers.removeIndex(getIndexByName(layerName));
 		layerMap.remove(layerName);
+		version++;
 	}
 
 	public void rename(String prevName, String newName) {
@@ -65,12 +72,25 @@ public class LayerMapComponent  extends PooledComponent {
 		vo.layerName = newName;
 		layerMap.remove(prevName);
 		layerMap.put(newName, vo);
+		version++;
 	}
 
 	public void swap(String source, String target) {
 		LayerItemVO sourceVO = getLayer(source);
 		LayerItemVO targetVO = getLayer(target);
 		layers.swap(layers.indexOf(sourceVO, false), layers.indexOf(targetVO, false));
+		version++;
+	}
+
+	/**
+	 * Must be called if layers are changed directly through {@link #getLayers()}
+	 */
+	public void markDirty() {
+		version++;
+	}
+
+	public int getVersion() {
+		return version;
 	}
 
 	@Override
@@ -78,5 +98,6 @@ public class LayerMapComponent  extends PooledComponent {
 		autoIndexing = true;
 		layers.clear();
 		layerMap.clear();
+		version++;
 	}
 }
@@ -2,7 +2,7 @@ package games.rednblack.editor.renderer.components;
 
 import com.artemis.PooledComponent;
 import com.badlogic.gdx.utils.ObjectMap;
-import com.badlogic.gdx.utils.ObjectSet;
+import games.rednblack.editor.renderer.utils.TagSet;
 
 public class MainItemComponent extends PooledComponent {
     public transient int uniqueId = -1;
@@ -13,7 +13,11 @@ public class MainItemComponent extends PooledComponent {
 	public boolean visible = true;
 	public boolean culled = false;
 
-	public ObjectSet<String> tags = new ObjectSet<>();
+	/**
+	 * Tags of the entity, once it's loaded changes made to this set are reflected by
+	 * {@link games.rednblack.editor.renderer.SceneLoader#getEntitiesByTag(String)}.
+	 */
+	public final TagSet tags = new TagSet();
 	public ObjectMap<String, String> customVariables = new ObjectMap<>();
 
 	public void setCustomVars(String key, String value) {
@@ -34,7 +38,7 @@ public class MainItemComponent extends PooledComponent {
 		visible = true;
 		culled = false;
 
-		tags.clear();
+		tags.reset();
 		customVariables.clear();
 	}
 }
@@ -3,25 +3,76 @@ package games.rednblack.editor.renderer.components;
 import com.artemis.PooledComponent;
 import com.artemis.annotations.EntityId;
 import com.artemis.utils.IntBag;
-import com.badlogic.gdx.utils.SnapshotArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
+/**
+ * Children of a composite, in draw order as maintained by {@link games.rednblack.editor.renderer.systems.LayerSystem}.
+ * <p>
+ * Children are found in O(1) through their last known index, but removal is O(n) in the number of following
+ * children: their order is the draw order, so they are shifted with a single array copy instead of swapping
+ * the last child into the hole.
+ */
 public class NodeComponent extends PooledComponent {
-    public transient SnapshotArray<Integer> children = new SnapshotArray<>(true, 1, Integer.class);
+    public transient SnapshotIntArray children = new SnapshotIntArray(true, 1);
     @EntityId public IntBag persistentChildren = new IntBag();
 
+    //Last known position of children, checked before use since children can be reordered
+    private transient final IntIntMap childrenIndices = new IntIntMap();
+
     public void removeChild(int entity) {
-        children.removeValue(entity, false);
+        int index = indexOf(entity);
+        if (index != -1)
+            children.removeIndex(index);
+        childrenIndices.remove(entity, -1);
         persistentChildren.removeValue(entity);
     }
 
     public void addChild(int entity) {
+        childrenIndices.put(entity, children.size);
         children.add(entity);
         persistentChildren.add(entity);
     }
 
+    /**
+     * Find the position of a child, without scanning the children array if it didn't move since last call.
+     * Children shifted by removals are found scanning back from their last known index.
+     *
+     * @return index of the child or -1 if not found
+     */
+    public int indexOf(int entity) {
+        int index = childrenIndices.get(entity, -1);
+        if (index >= 0) {
+            int[] items = children.items;
+            for (int i = Math.min(index, children.size - 1); i >= 0; i--) {
+                if (items[i] == entity) {
+                    if (i != index)
+                        childrenIndices.put(entity, i);
+                    return i;
+                }
+            }
+        }
+
+        index = children.indexOf(entity);
+        if (index != -1)
+            childrenIndices.put(entity, index);
+        return index;
+    }
+
+    /**
+     * Store the current position of all children, should be called after children are reordered
+     */
+    public void updateIndices() {
+        int[] items = children.items;
+        for (int i = 0, n = children.size; i < n; i++) {
+            childrenIndices.put(items[i], i);
+        }
+    }
+
     @Override
     public void reset() {
         children.clear();
         persistentChildren.clear();
+        childrenIndices.clear();
     }
 }
@@ -4,6 +4,12 @@ import com.artemis.PooledComponent;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
 
+/**
+ * Local transform of an entity. Changes are tracked with a version bumped by the setters: after writing fields
+ * directly call {@link #markDirty()}, otherwise scene transforms and bounding boxes keep the previous values.
+ * Code that can't do it can enable {@link games.rednblack.editor.renderer.SceneConfiguration#setDirectWritesDetectionEnabled(boolean)}
+ * at the cost of comparing fields of every entity each step.
+ */
 public class TransformComponent extends PooledComponent {
     public transient Affine2 worldTransform = new Affine2();
     public transient Matrix4 computedTransform = new Matrix4();
@@ -21,6 +27,20 @@ public class TransformComponent extends PooledComponent {
 
     private transient TransformComponent backup = null;
 
+    //Transform to scene coordinates, maintained by WorldTransformSystem
+    public transient final Affine2 sceneTransform = new Affine2();
+    public transient float sceneRotation = 0;
+    public transient int sceneVersion = 0;
+    public transient int sceneLocalVersion = -1;
+    public transient int sceneParentVersion = -1;
+    public transient int sceneParent = -1;
+    public transient int sceneFrame = -1;
+
+    //Version is bumped by setters and markDirty(), see updateVersion() for fields written directly
+    private transient int version = 0;
+    private transient float lastX, lastY, lastScaleX, lastScaleY, lastRotation, lastOriginX, lastOriginY;
+    private transient boolean lastFlipX, lastFlipY;
+
     public TransformComponent() {
 
     }
@@ -69,6 +89,78 @@ public class TransformComponent extends PooledComponent {
         backup = null;
     }
 
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+        markDirty();
+    }
+
+    public void setScale(float scaleX, float scaleY) {
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        markDirty();
+    }
+
+    public void setRotation(float rotation) {
+        this.rotation = rotation;
+        markDirty();
+    }
+
+    public void setOrigin(float originX, float originY) {
+        this.originX = originX;
+        this.originY = originY;
+        markDirty();
+    }
+
+    public void setFlip(boolean flipX, boolean flipY) {
+        this.flipX = flipX;
+        this.flipY = flipY;
+        markDirty();
+    }
+
+    /**
+     * Force a new version of this transform
+     */
+    public void markDirty() {
+        version++;
+        storeLastState();
+    }
+
+    /**
+     * Compare fields with the state of the last check and bump the version if something changed,
+     * used only when {@link games.rednblack.editor.renderer.systems.WorldTransformSystem} detects direct writes.
+     *
+     * @return current version
+     */
+    public int updateVersion() {
+        if (changed(x, lastX) || changed(y, lastY) || changed(scaleX, lastScaleX) || changed(scaleY, lastScaleY)
+                || changed(rotation, lastRotation) || changed(originX, lastOriginX) || changed(originY, lastOriginY)
+                || flipX != lastFlipX || flipY != lastFlipY) {
+            markDirty();
+        }
+        return version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    private void storeLastState() {
+        lastX = x;
+        lastY = y;
+        lastScaleX = scaleX;
+        lastScaleY = scaleY;
+        lastRotation = rotation;
+        lastOriginX = originX;
+        lastOriginY = originY;
+        lastFlipX = flipX;
+        lastFlipY = flipY;
+    }
+
+    private static boolean changed(float value, float last) {
+        return Float.floatToIntBits(value) != Float.floatToIntBits(last);
+    }
+
     public boolean shouldTransform() {
         return (rotation != 0 || scaleX != 1 || scaleY != 1 || flipY || flipX);
     }
@@ -96,5 +188,13 @@ public class TransformComponent extends PooledComponent {
         oldTransform.idt();
 
         backup = null;
+        version++;
+
+        sceneTransform.idt();
+        sceneRotation = 0;
+        sceneLocalVersion = -1;
+        sceneParentVersion = -1;
+        sceneParent = -1;
+        sceneFrame = -1;
     }
 }
@@ -8,6 +8,11 @@ public class ZIndexComponent  extends PooledComponent {
     public String layerName = "";
     public int layerIndex;
 
+    //Layer map state used to compute layerIndex
+    private transient LayerMapComponent indexedLayerMap = null;
+    private transient int indexedLayerMapVersion = -1;
+    private transient String indexedLayerName = null;
+
     public int getZIndex() {
         return zIndex;
     }
@@ -17,6 +22,23 @@ public class ZIndexComponent  extends PooledComponent {
         needReOrder = true;
     }
 
+    /**
+     * Refresh {@link #layerIndex} if the layer name or the layer map changed since last call.
+     *
+     * @return true if the layer index has been recalculated
+     */
+    public boolean updateLayerIndex(LayerMapComponent layerMap) {
+        int layerMapVersion = layerMap != null ? layerMap.getVersion() : -1;
+        if (layerMap == indexedLayerMap && layerMapVersion == indexedLayerMapVersion && layerName == indexedLayerName)
+            return false;
+
+        layerIndex = layerMap != null ? layerMap.getIndexByName(layerName) : 0;
+        indexedLayerMap = layerMap;
+        indexedLayerMapVersion = layerMapVersion;
+        indexedLayerName = layerName;
+        return true;
+    }
+
     public int getGlobalZIndex() {
         return layerIndex + zIndex;
     }
@@ -27,5 +49,8 @@ public class ZIndexComponent  extends PooledComponent {
         needReOrder = false;
         layerName = "";
         layerIndex = 0;
+        indexedLayerMap = null;
+        indexedLayerMapVersion = -1;
+        indexedLayerName = null;
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ public class CompositeItemVO extends MainItemVO {
 	public boolean automaticResize = true;
 	public boolean scissorsEnabled = false;
 	public boolean renderToFBO = false;
+	public boolean isStatic = false;
 
 	public ObjectMap<String, Array<MainItemVO>> content = new ObjectMap<>();
 
@@ -34,6 +35,7 @@ public class CompositeItemVO extends MainItemVO {
 		automaticResize = vo.automaticResize;
 		scissorsEnabled = vo.scissorsEnabled;
 		renderToFBO = vo.renderToFBO;
+		isStatic = vo.isStatic;
 
 		content.clear();
 		try {
@@ -97,7 +99,8 @@ public class CompositeItemVO extends MainItemVO {
 		}
 
 		BaseComponentMapper<MainItemComponent> mainItemComponentMapper = ComponentRetriever.getMapper(MainItemComponent.class, engine);
-		for (int child : nodeComponent.children) {
+		for (int i = 0; i < nodeComponent.children.size; i++) {
+			int child = nodeComponent.children.get(i);
 			int entityType = mainItemComponentMapper.get(child).entityType;
 			try {
 				MainItemVO entityVO = entityFactory.instantiateEmptyVO(entityType);
@@ -116,6 +119,7 @@ public class CompositeItemVO extends MainItemVO {
 		automaticResize = compositeTransformComponent.automaticResize;
 		scissorsEnabled = compositeTransformComponent.scissorsEnabled;
 		renderToFBO = compositeTransformComponent.renderToFBO;
+		isStatic = compositeTransformComponent.isStatic;
 	}
 
 	@Override
@@ -0,0 +1,175 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import games.rednblack.editor.renderer.data.MainItemVO;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free multi producer single consumer queue of entity creation commands.
+ * Any thread can enqueue commands, the world thread executes them with {@link #drain()} within a per frame
+ * time budget, so creating big composites from background threads never blocks the world thread.
+ * Commands are executed in enqueue order, a command can use a previously enqueued command as its parent.
+ * <p>
+ * {@link games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy} drains the buffer at the
+ * start of each frame. Worlds with a different invocation strategy must call {@link #drain()} every frame
+ * themselves and mark the buffer with {@link #setDrainedEachFrame(boolean)}, otherwise commands are never executed.
+ */
+public class EntityCommandBuffer {
+    public static final long DEFAULT_BUDGET_NANOS = 2000000;
+
+    public static class Command {
+        private final int parentEntity;
+        private final Command parentCommand;
+        private final MainItemVO vo;
+        private volatile Command next;
+
+        private volatile int entity = -1;
+        private volatile boolean done = false;
+
+        private Command(int parentEntity, Command parentCommand, MainItemVO vo) {
+            this.parentEntity = parentEntity;
+            this.parentCommand = parentCommand;
+            this.vo = vo;
+        }
+
+        /**
+         * @return created entity, -1 if not executed yet or if its parent failed
+         */
+        public int getEntity() {
+            return entity;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    private final EntityFactory entityFactory;
+
+    //Producers append to head, the consumer reads from tail, tail is always an already consumed node
+    private final AtomicReference<Command> head;
+    private Command tail;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private long budgetNanos = DEFAULT_BUDGET_NANOS;
+    private long executed = 0;
+    private volatile boolean drainedEachFrame = false;
+
+    public EntityCommandBuffer(EntityFactory entityFactory) {
+        this.entityFactory = entityFactory;
+        Command stub = new Command(-1, null, null);
+        head = new AtomicReference<>(stub);
+        tail = stub;
+    }
+
+    /**
+     * Create an entity from vo as child of an existing entity, can be called from any thread
+     */
+    public Command create(int parentEntity, MainItemVO vo) {
+        return enqueue(new Command(parentEntity, null, vo));
+    }
+
+    /**
+     * Create an entity from vo as child of the entity that will be created by parent, can be called from any thread
+     */
+    public Command create(Command parent, MainItemVO vo) {
+        return enqueue(new Command(-1, parent, vo));
+    }
+
+    private Command enqueue(Command command) {
+        pending.incrementAndGet();
+        Command previous = head.getAndSet(command);
+        previous.next = command;
+        return command;
+    }
+
+    /**
+     * Execute commands until the queue is empty or the time budget is over, at least one command is executed.
+     * Must be called from the world thread.
+     *
+     * @return number of executed commands
+     */
+    public int drain() {
+        return drain(budgetNanos);
+    }
+
+    public int drain(long budgetNanos) {
+        if (pending.get() == 0)
+            return 0;
+
+        long start = TimeUtils.nanoTime();
+        int count = 0;
+        Command command;
+        while ((command = poll()) != null) {
+            execute(command);
+            count++;
+            if (TimeUtils.nanoTime() - start >= budgetNanos)
+                break;
+        }
+        executed += count;
+        return count;
+    }
+
+    /**
+     * Execute all the pending commands, must be called from the world thread
+     */
+    public int drainAll() {
+        return drain(Long.MAX_VALUE);
+    }
+
+    private Command poll() {
+        Command next = tail.next;
+        if (next == null)
+            return null;
+        //Consumed node becomes the new stub, release the old one
+        tail.next = null;
+        tail = next;
+        pending.decrementAndGet();
+        return next;
+    }
+
+    private void execute(Command command) {
+        int parent = command.parentCommand != null ? command.parentCommand.entity : command.parentEntity;
+        if (parent != -1)
+            command.entity = entityFactory.createEntity(parent, command.vo);
+        command.done = true;
+    }
+
+    /**
+     * Time spent executing commands at each {@link #drain()}, default 2ms
+     */
+    public void setBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public long getBudget() {
+        return budgetNanos;
+    }
+
+    /**
+     * Declare that something drains the buffer every frame, set by the invocation strategy draining it
+     */
+    public void setDrainedEachFrame(boolean drainedEachFrame) {
+        this.drainedEachFrame = drainedEachFrame;
+    }
+
+    public boolean isDrainedEachFrame() {
+        return drainedEachFrame;
+    }
+
+    /**
+     * @return commands enqueued and not executed yet
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * @return commands executed since the creation of the buffer
+     */
+    public long getExecuted() {
+        return executed;
+    }
+}
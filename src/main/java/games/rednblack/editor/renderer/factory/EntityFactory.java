@@ -23,11 +23,8 @@ import games.rednblack.editor.renderer.data.CompositeItemVO;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.factory.component.*;
 import games.rednblack.editor.renderer.resources.IResourceRetriever;
-import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
 import games.rednblack.editor.renderer.utils.HyperJson;
-
-import java.util.ArrayList;
-import java.util.Collections;
+import games.rednblack.editor.renderer.utils.TagIndex;
 
 public class EntityFactory {
     public static final int UNKNOWN_TYPE = -1;
@@ -54,6 +51,10 @@ public class EntityFactory {
 
     // TODO: Do we still need it? Like, in Artemis all enties are already identified by a Unique ID
     private final IntIntMap entities = new IntIntMap();
+    // Unique ids in use, every id below nextFreeId is taken so allocation never scans from the start
+    private final Bits usedIds = new Bits();
+    private int nextFreeId = 1;
+    private final TagIndex tagIndex = new TagIndex();
 
     public RayHandler rayHandler;
     public World world;
@@ -61,6 +62,8 @@ public class EntityFactory {
     public com.artemis.World engine;
 
     private final AsyncExecutor asyncExecutor = new AsyncExecutor(1);
+    private final EntityCommandBuffer commandBuffer = new EntityCommandBuffer(this);
+    private final IncrementalEntityLoader incrementalLoader = new IncrementalEntityLoader(this);
 
     /**
      * Do call injectDependencies manually when using this constructor!
@@ -139,6 +142,13 @@ public class EntityFactory {
         return entity;
     }
 
+    /**
+     * @return factory creating entities from the given VO type, null if none is registered
+     */
+    public ComponentFactory getComponentFactory(Class<? extends MainItemVO> voType) {
+        return factoriesVOMap.get(voType);
+    }
+
     public int createRootEntity(CompositeItemVO vo, Viewport viewport, int ppwu) {
         vo.automaticResize = false;
 
@@ -153,7 +163,16 @@ public class EntityFactory {
         return entity;
     }
 
+    /**
+     * Create all the children of vo in background, entities are enqueued in the {@link EntityCommandBuffer}
+     * and created by the world thread within its per frame budget
+     *
+     * @throws IllegalStateException if nothing drains the command buffer, see {@link EntityCommandBuffer}
+     */
     public void initAllChildrenAsync(final int root, final CompositeItemVO vo) {
+        if (!commandBuffer.isDrainedEachFrame())
+            throw new IllegalStateException("Entity command buffer is not drained, use HyperLap2dInvocationStrategy or call EntityCommandBuffer#drain() each frame.");
+
         AsyncTask<Void> task = new AsyncTask<Void>() {
             @Override
             public Void call() throws Exception {
@@ -165,14 +184,19 @@ public class EntityFactory {
     }
 
     private void createAllChildrenAsync(int root, CompositeItemVO vo) {
+        enqueueAllChildren(root, null, vo);
+    }
+
+    /**
+     * Enqueue creation of all the children of vo, parent is either an entity or a command if it is not created yet
+     */
+    private void enqueueAllChildren(int rootEntity, EntityCommandBuffer.Command rootCommand, CompositeItemVO vo) {
         for (String key : new ObjectMap.Keys<>(vo.content)) {
             if (key.equals(CompositeItemVO.class.getName())) continue;
 
             Array<MainItemVO> vos = vo.content.get(key);
             for (MainItemVO mainItemVO : new Array.ArrayIterator<>(vos, true)) {
-                synchronized (HyperLap2dInvocationStrategy.updateEntities) {
-                    createEntity(root, mainItemVO);
-                }
+                enqueue(rootEntity, rootCommand, mainItemVO);
             }
         }
 
@@ -180,15 +204,28 @@ public class EntityFactory {
         if (compositeVOs != null) {
             for (MainItemVO mainItemVO : new Array.ArrayIterator<>(compositeVOs, true)) {
                 CompositeItemVO compositeItemVO = (CompositeItemVO) mainItemVO;
-                int composite = -1;
-                synchronized (HyperLap2dInvocationStrategy.updateEntities) {
-                    composite = createEntity(root, compositeItemVO);
-                }
-                createAllChildrenAsync(composite, compositeItemVO);
+                EntityCommandBuffer.Command composite = enqueue(rootEntity, rootCommand, compositeItemVO);
+                enqueueAllChildren(-1, composite, compositeItemVO);
             }
         }
     }
 
+    private EntityCommandBuffer.Command enqueue(int rootEntity, EntityCommandBuffer.Command rootCommand, MainItemVO vo) {
+        if (rootCommand != null)
+            return commandBuffer.create(rootCommand, vo);
+        return commandBuffer.create(rootEntity, vo);
+    }
+
+    /**
+     * Create all the children of vo on the world thread over several frames, a bounded amount per frame,
+     * see {@link IncrementalEntityLoader}
+     *
+     * @param listener can be null
+     */
+    public IncrementalEntityLoader.LoadTask initAllChildrenIncremental(int root, CompositeItemVO vo, IncrementalEntityLoader.LoadListener listener) {
+        return incrementalLoader.submit(root, vo, listener);
+    }
+
     public void initAllChildren(int root, CompositeItemVO vo) {
         for (String key : vo.content.keys()) {
             if (key.equals(CompositeItemVO.class.getName())) continue;
@@ -214,6 +251,8 @@ public class EntityFactory {
 
         if (mainItemComponent.uniqueId == -1) mainItemComponent.uniqueId = getFreeId();
         entities.put(mainItemComponent.uniqueId, entity);
+        if (mainItemComponent.uniqueId > 0) usedIds.set(mainItemComponent.uniqueId);
+        tagIndex.addAll(mainItemComponent.tags, entity);
 
         for (String tag : mainItemComponent.tags) {
             EntityTransmuter transmuter = tagTransmuter.get(tag);
@@ -224,29 +263,25 @@ public class EntityFactory {
     }
 
     private int getFreeId() {
-        if (entities.size == 0) return 1;
-
-        // TODO: Is it performant enough?
-        // Just so you know why this TODO exists and what is really going on in here, i dont know why we need to sort the elements. That's why, to be on the safe side, i wrote some code to get it sorted
-        IntIntMap.Keys keys = entities.keys();
-        ArrayList<Integer> ids = new ArrayList<>();
-        while (keys.hasNext) ids.add(keys.next());
-
-        Collections.sort(ids);
-        for (int i = 1; i < ids.size(); i++) {
-            if (ids.get(i) - ids.get(i - 1) > 1) {
-                return ids.get(i - 1) + 1;
-            }
-        }
-        return ids.get(ids.size() - 1) + 1;
+        int id = usedIds.nextClearBit(nextFreeId);
+        nextFreeId = id + 1;
+        return id;
     }
 
     public int getEntityByUniqueId(int id) {
         return entities.get(id, -1);
     }
 
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
     public void clean() {
         entities.clear();
+        usedIds.clear();
+        nextFreeId = 1;
+        tagIndex.clear();
+        incrementalLoader.cancelAll();
     }
 
     public MainItemVO instantiateEmptyVO(int entityType) throws ReflectionException {
@@ -257,6 +292,14 @@ public class EntityFactory {
         return HyperJson.getJson().fromJson(voMap.get(entityType), json);
     }
 
+    public EntityCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+
+    public IncrementalEntityLoader getIncrementalLoader() {
+        return incrementalLoader;
+    }
+
     public void dispose() {
         asyncExecutor.dispose();
     }
@@ -0,0 +1,302 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.annotations.SkipWire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.ObjectMap;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.components.light.LightBodyComponent;
+import games.rednblack.editor.renderer.components.light.LightObjectComponent;
+import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
+import games.rednblack.editor.renderer.scripts.IScript;
+import games.rednblack.editor.renderer.scripts.RecyclableScript;
+import games.rednblack.editor.renderer.systems.action.Actions;
+import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
+import games.rednblack.editor.renderer.utils.TransformMathUtils;
+
+/**
+ * Pools of despawned library item instances, reused by {@link Prefab#instantiate(int, String, float, float)}
+ * instead of creating new entities.
+ * A despawned instance is detached from the scene tree, so it's not rendered nor culled, and all its entities are
+ * marked with {@link DespawnedComponent} so systems skip them. Components, scripts, Box2D bodies and lights are kept:
+ * bodies are disabled and lights turned off until the instance is reused, avoiding GC and Box2D body churn.
+ * Bodies are switched when the marker is added or removed by the world, outside of the physics step, so
+ * items can be despawned and spawned from contact callbacks.
+ * <p>
+ * An instance goes back to its pool only once the world has processed its despawn: an instance despawned and reused
+ * before that would cancel out the marker, leaving its body where it was and interpolation snapshots stale.
+ * Instances despawned in the current frame are then never reused, while an instance despawned in the same frame it
+ * was reused goes back to the pool right away, its body was never turned on again.
+ * <p>
+ * Scripts implementing {@link RecyclableScript} are notified to reset their own state. Actions are cleared on despawn,
+ * only position, rotation, scale and layer of the root entity are restored from the library item on respawn.
+ */
+public class EntityRecycler {
+    protected ComponentMapper<DespawnedComponent> despawnedCM;
+    protected ComponentMapper<MainItemComponent> mainItemCM;
+    protected ComponentMapper<NodeComponent> nodeCM;
+    protected ComponentMapper<ParentNodeComponent> parentNodeCM;
+    protected ComponentMapper<TransformComponent> transformCM;
+    protected ComponentMapper<ScriptComponent> scriptCM;
+    protected ComponentMapper<PhysicsBodyComponent> physicsBodyCM;
+    protected ComponentMapper<LightObjectComponent> lightObjectCM;
+    protected ComponentMapper<LightBodyComponent> lightBodyCM;
+
+    @SkipWire
+    private final com.artemis.World engine;
+    @SkipWire
+    private final EntityFactory entityFactory;
+    @SkipWire
+    private final HyperLap2dRenderer renderer;
+
+    //Prefab of recyclable roots, both alive and despawned
+    private final IntMap<Prefab> owners = new IntMap<>();
+    private final ObjectMap<Prefab, IntArray> pools = new ObjectMap<>();
+    //Reused roots whose marker removal hasn't been processed by the world yet
+    private final IntSet respawning = new IntSet();
+
+    private final IntArray subtree = new IntArray();
+    private final Vector2 tmp = new Vector2();
+
+    public EntityRecycler(com.artemis.World engine, EntityFactory entityFactory) {
+        this.engine = engine;
+        this.entityFactory = entityFactory;
+        engine.inject(this);
+        renderer = engine.getSystem(HyperLap2dRenderer.class);
+
+        engine.getAspectSubscriptionManager()
+                .get(Aspect.all(DespawnedComponent.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            int entity = entities.get(i);
+                            deactivate(entity);
+
+                            Prefab prefab = owners.get(entity);
+                            if (prefab != null)
+                                pools.get(prefab).add(entity);
+                        }
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            int entity = entities.get(i);
+                            respawning.remove(entity);
+                            activate(entity);
+                        }
+                    }
+                });
+
+        engine.getAspectSubscriptionManager()
+                .get(Aspect.all())
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (int i = 0; i < entities.size(); i++) {
+                            int entity = entities.get(i);
+                            respawning.remove(entity);
+                            Prefab prefab = owners.remove(entity);
+                            IntArray pool = prefab != null ? pools.get(prefab) : null;
+                            if (pool != null)
+                                pool.removeValue(entity);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Register a new instance of a recyclable prefab
+     */
+    void track(int root, Prefab prefab) {
+        owners.put(root, prefab);
+        if (!pools.containsKey(prefab))
+            pools.put(prefab, new IntArray());
+    }
+
+    /**
+     * @return a despawned instance of the prefab, detached and still marked as despawned, -1 if the pool is empty
+     */
+    int obtain(Prefab prefab) {
+        IntArray pool = pools.get(prefab);
+        return pool != null && pool.size > 0 ? pool.pop() : -1;
+    }
+
+    /**
+     * Move an instance of a recyclable library item back to its pool, it can be reused from the next frame
+     *
+     * @return false if the entity isn't a live instance of a recyclable library item
+     */
+    public boolean despawn(int root) {
+        Prefab prefab = owners.get(root);
+        if (prefab == null || despawnedCM.has(root))
+            return false;
+
+        collect(root);
+        for (int i = 0; i < subtree.size; i++) {
+            int entity = subtree.get(i);
+            notifyScripts(entity, true);
+
+            despawnedCM.create(entity);
+            entityFactory.getTagIndex().removeAll(mainItemCM.get(entity).tags, entity);
+            Actions.removeActions(entity, engine);
+        }
+
+        ParentNodeComponent parentNodeComponent = parentNodeCM.get(root);
+        if (parentNodeComponent != null && parentNodeComponent.parentEntity != -1) {
+            int parent = parentNodeComponent.parentEntity;
+            nodeCM.get(parent).removeChild(root);
+            parentNodeComponent.parentEntity = -1;
+            invalidate(parent);
+        }
+
+        //Marker removal and creation cancel out, the world won't notify the instance is back in the pool
+        if (respawning.remove(root))
+            pools.get(prefab).add(root);
+        return true;
+    }
+
+    /**
+     * Bring back an instance obtained from the pool, it must be already attached to its new parent
+     */
+    void respawn(int root) {
+        collect(root);
+        for (int i = 0; i < subtree.size; i++) {
+            int entity = subtree.get(i);
+            despawnedCM.remove(entity);
+            entityFactory.getTagIndex().addAll(mainItemCM.get(entity).tags, entity);
+        }
+        respawning.add(root);
+
+        ParentNodeComponent parentNodeComponent = parentNodeCM.get(root);
+        if (parentNodeComponent != null && parentNodeComponent.parentEntity != -1)
+            invalidate(parentNodeComponent.parentEntity);
+
+        for (int i = 0; i < subtree.size; i++) {
+            notifyScripts(subtree.get(i), false);
+        }
+    }
+
+    public boolean isRecyclable(int root) {
+        return owners.containsKey(root);
+    }
+
+    /**
+     * @return number of despawned instances of the prefab ready to be reused, instances despawned in the current
+     * frame aren't counted yet
+     */
+    public int getPoolSize(Prefab prefab) {
+        IntArray pool = pools.get(prefab);
+        return pool != null ? pool.size : 0;
+    }
+
+    /**
+     * Delete despawned instances of the prefab and stop tracking its live ones
+     */
+    public void clear(Prefab prefab) {
+        pools.remove(prefab);
+
+        IntMap.Keys keys = owners.keys();
+        while (keys.hasNext) {
+            int root = keys.next();
+            if (owners.get(root) == prefab) {
+                respawning.remove(root);
+                if (despawnedCM.has(root))
+                    engine.delete(root);
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Delete all the despawned instances and stop tracking live ones, called when a new scene is loaded
+     */
+    public void clear() {
+        IntMap.Keys keys = owners.keys();
+        while (keys.hasNext) {
+            int root = keys.next();
+            if (despawnedCM.has(root))
+                engine.delete(root);
+        }
+        pools.clear();
+        owners.clear();
+        respawning.clear();
+    }
+
+    private void deactivate(int entity) {
+        PhysicsBodyComponent physicsBodyComponent = physicsBodyCM.get(entity);
+        if (physicsBodyComponent != null && physicsBodyComponent.body != null)
+            physicsBodyComponent.body.setActive(false);
+
+        LightObjectComponent lightObjectComponent = lightObjectCM.get(entity);
+        if (lightObjectComponent != null && lightObjectComponent.lightObject != null)
+            lightObjectComponent.lightObject.setActive(false);
+
+        LightBodyComponent lightBodyComponent = lightBodyCM.get(entity);
+        if (lightBodyComponent != null && lightBodyComponent.lightObject != null)
+            lightBodyComponent.lightObject.setActive(false);
+    }
+
+    private void activate(int entity) {
+        //Lights are turned on again by LightSystem
+        PhysicsBodyComponent physicsBodyComponent = physicsBodyCM.get(entity);
+        if (physicsBodyComponent == null || physicsBodyComponent.body == null)
+            return;
+
+        TransformComponent transformComponent = transformCM.get(entity);
+        tmp.set(transformComponent.originX, transformComponent.originY);
+        TransformMathUtils.localToSceneCoordinates(entity, tmp, transformCM, parentNodeCM);
+
+        Body body = physicsBodyComponent.body;
+        body.setTransform(tmp.x, tmp.y, transformComponent.rotation * MathUtils.degreesToRadians);
+        body.setLinearVelocity(0, 0);
+        body.setAngularVelocity(0);
+        body.setAwake(physicsBodyComponent.awake);
+        body.setActive(true);
+    }
+
+    private void notifyScripts(int entity, boolean despawn) {
+        ScriptComponent scriptComponent = scriptCM.get(entity);
+        if (scriptComponent == null)
+            return;
+
+        for (IScript script : scriptComponent.scripts) {
+            if (script instanceof RecyclableScript) {
+                if (despawn)
+                    ((RecyclableScript) script).onDespawn();
+                else
+                    ((RecyclableScript) script).onRespawn();
+            }
+        }
+    }
+
+    private void invalidate(int composite) {
+        if (renderer != null) {
+            renderer.invalidateRenderList();
+            renderer.invalidateStaticBatch(composite);
+        }
+    }
+
+    private void collect(int root) {
+        subtree.clear();
+        subtree.add(root);
+        for (int i = 0; i < subtree.size; i++) {
+            NodeComponent nodeComponent = nodeCM.get(subtree.get(i));
+            if (nodeComponent != null)
+                subtree.addAll(nodeComponent.children);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.TimeUtils;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+
+/**
+ * Cooperative creation of composite trees on the world thread. Each {@link #step()} creates entities until the
+ * time budget or the entity limit of the frame is reached, so big trees are spread over several frames without
+ * hitches and without mutating the world from other threads.
+ * {@link games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy} steps it at the start
+ * of each frame, tasks are processed in submission order.
+ */
+public class IncrementalEntityLoader {
+    public static final long DEFAULT_BUDGET_NANOS = 4000000;
+
+    public interface LoadListener {
+        /**
+         * Called at the end of every step that created entities of the task
+         */
+        void progress(LoadTask task);
+
+        /**
+         * Called once all the entities of the task have been created, or the task has been cancelled
+         */
+        void completed(LoadTask task);
+    }
+
+    public static class LoadTask {
+        private final int root;
+        private final LoadListener listener;
+        //Items in creation order, a composite always comes before its children
+        private final Array<MainItemVO> items = new Array<>();
+        private final IntArray parents = new IntArray();
+        private final IntArray entities = new IntArray();
+        private boolean cancelled = false;
+
+        private LoadTask(int root, LoadListener listener) {
+            this.root = root;
+            this.listener = listener;
+        }
+
+        public int getRoot() {
+            return root;
+        }
+
+        public int getCreated() {
+            return entities.size;
+        }
+
+        public int getTotal() {
+            return items.size;
+        }
+
+        public float getProgress() {
+            return items.size == 0 ? 1 : (float) entities.size / items.size;
+        }
+
+        public boolean isDone() {
+            return cancelled || entities.size == items.size;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Stop creating entities, already created ones are kept
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void add(MainItemVO vo, int parent) {
+            items.add(vo);
+            parents.add(parent);
+        }
+    }
+
+    private final EntityFactory entityFactory;
+    private final Queue<LoadTask> tasks = new Queue<>();
+
+    private long budgetNanos = DEFAULT_BUDGET_NANOS;
+    private int maxEntitiesPerStep = Integer.MAX_VALUE;
+
+    public IncrementalEntityLoader(EntityFactory entityFactory) {
+        this.entityFactory = entityFactory;
+    }
+
+    /**
+     * Schedule creation of all the children of vo as children of root, in the same order of
+     * {@link EntityFactory#initAllChildren(int, CompositeItemVO)}
+     *
+     * @param listener can be null
+     */
+    public LoadTask submit(int root, CompositeItemVO vo, LoadListener listener) {
+        LoadTask task = new LoadTask(root, listener);
+        flatten(task, vo, -1);
+        tasks.addLast(task);
+        return task;
+    }
+
+    private void flatten(LoadTask task, CompositeItemVO vo, int parent) {
+        for (String key : vo.content.keys()) {
+            if (key.equals(CompositeItemVO.class.getName())) continue;
+
+            Array<MainItemVO> vos = vo.content.get(key);
+            for (int i = 0; i < vos.size; i++) {
+                task.add(vos.get(i), parent);
+            }
+        }
+
+        Array<MainItemVO> compositeVOs = vo.content.get(CompositeItemVO.class.getName());
+        if (compositeVOs != null) {
+            for (int i = 0; i < compositeVOs.size; i++) {
+                CompositeItemVO compositeItemVO = (CompositeItemVO) compositeVOs.get(i);
+                int index = task.items.size;
+                task.add(compositeItemVO, parent);
+                flatten(task, compositeItemVO, index);
+            }
+        }
+    }
+
+    /**
+     * Create entities of pending tasks within the budget, at least one entity is created.
+     * Must be called from the world thread.
+     *
+     * @return number of created entities
+     */
+    public int step() {
+        if (tasks.size == 0)
+            return 0;
+
+        long start = TimeUtils.nanoTime();
+        int count = 0;
+        while (tasks.size > 0) {
+            LoadTask task = tasks.first();
+            int created = 0;
+            while (!task.isDone()) {
+                if (!entityFactory.engine.getEntityManager().isActive(task.root)) {
+                    task.cancel();
+                    break;
+                }
+
+                int index = task.entities.size;
+                int parentIndex = task.parents.get(index);
+                int parent = parentIndex == -1 ? task.root : task.entities.get(parentIndex);
+                task.entities.add(entityFactory.createEntity(parent, task.items.get(index)));
+                created++;
+                count++;
+
+                if (count >= maxEntitiesPerStep || TimeUtils.nanoTime() - start >= budgetNanos)
+                    break;
+            }
+
+            if (task.listener != null && created > 0)
+                task.listener.progress(task);
+
+            if (!task.isDone())
+                break;
+
+            tasks.removeFirst();
+            if (task.listener != null)
+                task.listener.completed(task);
+
+            if (count >= maxEntitiesPerStep || TimeUtils.nanoTime() - start >= budgetNanos)
+                break;
+        }
+        return count;
+    }
+
+    /**
+     * Create all the pending entities, must be called from the world thread
+     */
+    public void finishAll() {
+        long budget = budgetNanos;
+        int max = maxEntitiesPerStep;
+        budgetNanos = Long.MAX_VALUE;
+        maxEntitiesPerStep = Integer.MAX_VALUE;
+        try {
+            while (tasks.size > 0) step();
+        } finally {
+            budgetNanos = budget;
+            maxEntitiesPerStep = max;
+        }
+    }
+
+    /**
+     * Cancel all the pending tasks, their listeners complete at the next {@link #step()}
+     */
+    public void cancelAll() {
+        for (LoadTask task : tasks) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Time spent creating entities at each {@link #step()}, default 4ms
+     */
+    public void setBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public long getBudget() {
+        return budgetNanos;
+    }
+
+    /**
+     * Limit of entities created at each {@link #step()}, unlimited by default
+     */
+    public void setMaxEntitiesPerStep(int maxEntitiesPerStep) {
+        this.maxEntitiesPerStep = maxEntitiesPerStep;
+    }
+
+    public int getMaxEntitiesPerStep() {
+        return maxEntitiesPerStep;
+    }
+
+    /**
+     * @return tasks not completed yet
+     */
+    public int getPendingTasks() {
+        return tasks.size;
+    }
+}
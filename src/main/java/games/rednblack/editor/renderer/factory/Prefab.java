@@ -0,0 +1,190 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.artemis.Archetype;
+import com.artemis.ArchetypeBuilder;
+import com.artemis.ComponentMapper;
+import com.artemis.ComponentType;
+import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+import games.rednblack.editor.renderer.factory.component.ComponentFactory;
+
+/**
+ * Library item resolved once and instantiated many times.
+ * The composite tree is flattened and the component factory of each node is resolved when the prefab is built,
+ * the first instance then records the components of each node in an {@link Archetype}: next instances are created
+ * with their final composition at once, without walking the VO tree or changing the composition of each entity
+ * once per added component.
+ * <p>
+ * Nodes keep referencing the library VOs, so changes to their values are picked up by next instances. Changes that
+ * add or remove components, like a new physics body, need a new prefab.
+ * <p>
+ * With an {@link EntityRecycler} set, despawned instances are reused before creating new ones.
+ */
+public class Prefab {
+    private final EntityFactory entityFactory;
+    private final CompositeItemVO vo;
+
+    //Nodes in creation order, the root composite first and a composite always before its children
+    private final Array<MainItemVO> items = new Array<>();
+    private final IntArray parents = new IntArray();
+    private final Array<ComponentFactory> factories = new Array<>();
+    private final Array<Archetype> archetypes = new Array<>();
+
+    private final IntArray instance = new IntArray();
+
+    private final ComponentMapper<TransformComponent> transformCM;
+    private final ComponentMapper<ZIndexComponent> zIndexCM;
+    private EntityRecycler recycler;
+
+    public Prefab(EntityFactory entityFactory, CompositeItemVO vo) {
+        this.entityFactory = entityFactory;
+        this.vo = vo;
+        this.transformCM = entityFactory.engine.getMapper(TransformComponent.class);
+        this.zIndexCM = entityFactory.engine.getMapper(ZIndexComponent.class);
+
+        add(vo, -1);
+        flatten(vo, 0);
+    }
+
+    private void add(MainItemVO item, int parent) {
+        ComponentFactory factory = entityFactory.getComponentFactory(item.getClass());
+        if (factory == null)
+            throw new IllegalArgumentException("No factory for " + item.getClass().getName());
+
+        items.add(item);
+        parents.add(parent);
+        factories.add(factory);
+        archetypes.add(null);
+    }
+
+    private void flatten(CompositeItemVO composite, int parent) {
+        for (String key : composite.content.keys()) {
+            if (key.equals(CompositeItemVO.class.getName())) continue;
+
+            Array<MainItemVO> vos = composite.content.get(key);
+            for (int i = 0; i < vos.size; i++) {
+                add(vos.get(i), parent);
+            }
+        }
+
+        Array<MainItemVO> compositeVOs = composite.content.get(CompositeItemVO.class.getName());
+        if (compositeVOs != null) {
+            for (int i = 0; i < compositeVOs.size; i++) {
+                CompositeItemVO compositeItemVO = (CompositeItemVO) compositeVOs.get(i);
+                int index = items.size;
+                add(compositeItemVO, parent);
+                flatten(compositeItemVO, index);
+            }
+        }
+    }
+
+    /**
+     * Create a new instance of the library item
+     *
+     * @return the root entity of the instance
+     */
+    public int instantiate(int root, String layerName, float x, float y) {
+        if (recycler != null) {
+            int entity = recycler.obtain(this);
+            if (entity != -1)
+                return respawn(entity, root, layerName, x, y);
+        }
+
+        vo.layerName = layerName;
+        vo.x = x;
+        vo.y = y;
+
+        instance.clear();
+        for (int i = 0; i < items.size; i++) {
+            int parentIndex = parents.get(i);
+            int parent = parentIndex == -1 ? root : instance.get(parentIndex);
+
+            Archetype archetype = archetypes.get(i);
+            int entity;
+            if (archetype == null) {
+                entity = factories.get(i).createEntity(parent, items.get(i));
+            } else {
+                entity = factories.get(i).createEntity(parent, items.get(i), archetype);
+            }
+            entityFactory.postProcessEntity(entity);
+
+            if (archetype == null)
+                archetypes.set(i, buildArchetype(entity));
+
+            instance.add(entity);
+        }
+
+        int entity = instance.get(0);
+        if (recycler != null)
+            recycler.track(entity, this);
+        return entity;
+    }
+
+    private int respawn(int entity, int root, String layerName, float x, float y) {
+        TransformComponent transform = transformCM.get(entity);
+        transform.x = x;
+        transform.y = y;
+        transform.rotation = vo.rotation;
+        transform.scaleX = vo.scaleX;
+        transform.scaleY = vo.scaleY;
+        transform.markDirty();
+
+        ZIndexComponent zIndex = zIndexCM.get(entity);
+        zIndex.layerName = layerName == null || layerName.isEmpty() ? "Default" : layerName;
+
+        factories.get(0).adjustNodeHierarchy(root, entity);
+        recycler.respawn(entity);
+        return entity;
+    }
+
+    /**
+     * Create an instance of the library item for each position
+     *
+     * @param positions x and y of each instance
+     * @param out       filled with the root entity of each instance
+     */
+    public void instantiate(int root, String layerName, float[] positions, IntArray out) {
+        out.ensureCapacity(positions.length / 2);
+        for (int i = 0; i + 1 < positions.length; i += 2) {
+            out.add(instantiate(root, layerName, positions[i], positions[i + 1]));
+        }
+    }
+
+    private Archetype buildArchetype(int entity) {
+        ArchetypeBuilder builder = new ArchetypeBuilder();
+        ImmutableBag<ComponentType> types = entityFactory.engine.getComponentManager().getComponentTypes();
+        for (int i = 0; i < types.size(); i++) {
+            ComponentType type = types.get(i);
+            if (entityFactory.engine.getMapper(type.getType()).has(entity))
+                builder.add(type.getType());
+        }
+        return builder.build(entityFactory.engine);
+    }
+
+    /**
+     * Set the recycler of instances, null to always create new entities
+     */
+    public void setRecycler(EntityRecycler recycler) {
+        this.recycler = recycler;
+    }
+
+    public EntityRecycler getRecycler() {
+        return recycler;
+    }
+
+    public CompositeItemVO getVO() {
+        return vo;
+    }
+
+    /**
+     * @return number of entities created for each instance
+     */
+    public int getSize() {
+        return items.size;
+    }
+}
@@ -69,7 +69,7 @@ public class ColorPrimitiveComponentFactory extends ComponentFactory {
         super.initializeTransientComponents(entity);
 
         TextureRegionComponent component = textureRegionCM.get(entity);
-        engine.inject(component);
+        injectionCache.inject(component);
         component.region = rm.getTextureRegion(component.regionName);
         ProjectInfoVO projectInfoVO = rm.getProjectVO();
         component.ppwu = projectInfoVO.pixelToWorld;
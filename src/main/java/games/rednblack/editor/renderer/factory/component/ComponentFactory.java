@@ -16,6 +16,7 @@ import games.rednblack.editor.renderer.components.shape.CircleShapeComponent;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.resources.IResourceRetriever;
+import games.rednblack.editor.renderer.utils.InjectionCache;
 
 public abstract class ComponentFactory {
     protected ComponentMapper<BoundingBoxComponent> boundingBoxCM;
@@ -38,6 +39,7 @@ public abstract class ComponentFactory {
     protected RayHandler rayHandler;
     protected World world;
     protected com.artemis.World engine;
+    protected InjectionCache injectionCache;
 
     private Archetype entityArchetype;
 
@@ -57,6 +59,7 @@ public abstract class ComponentFactory {
         this.rayHandler = rayHandler;
         this.world = world;
         this.rm = rm;
+        this.injectionCache = new InjectionCache(engine);
 
         this.entityArchetype = new ArchetypeBuilder()
                 .add(DimensionsComponent.class)
@@ -102,15 +105,15 @@ public abstract class ComponentFactory {
         }
 
         if (physicsBodyCM.has(entity)) {
-            engine.inject(physicsBodyCM.get(entity));
+            injectionCache.inject(physicsBodyCM.get(entity));
         }
 
         if (sensorCM.has(entity)) {
-            engine.inject(sensorCM.get(entity));
+            injectionCache.inject(sensorCM.get(entity));
         }
 
         if (lightBodyCM.has(entity)) {
-            engine.inject(lightBodyCM.get(entity));
+            injectionCache.inject(lightBodyCM.get(entity));
         }
 
         if (shaderCM.has(entity)) {
@@ -164,8 +167,16 @@ public abstract class ComponentFactory {
     public abstract Class<? extends MainItemVO> getVOType();
 
     public int createEntity(int root, MainItemVO vo) {
+        return createEntity(root, vo, entityArchetype);
+    }
+
+    /**
+     * Create the entity from an archetype that may already contain the components added by this factory,
+     * components already there are reused instead of changing the entity composition once per component
+     */
+    public int createEntity(int root, MainItemVO vo, Archetype archetype) {
         //Create Artemis Entity
-        int entity = engine.create(entityArchetype);
+        int entity = engine.create(archetype);
         mainItemCM.get(entity).entityType = getEntityType();
 
         //Specialize the entity for the current factory
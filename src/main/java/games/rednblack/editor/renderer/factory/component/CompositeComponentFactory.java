@@ -86,6 +86,7 @@ public class CompositeComponentFactory extends ComponentFactory {
         compositeTransformComponent.automaticResize = vo.automaticResize;
         compositeTransformComponent.scissorsEnabled = vo.scissorsEnabled;
         compositeTransformComponent.renderToFBO = vo.renderToFBO;
+        compositeTransformComponent.isStatic = vo.isStatic;
     }
 
     public static LayerItemVO createDefaultLayer() {
@@ -67,7 +67,7 @@ public class SimpleImageComponentFactory extends ComponentFactory {
         super.initializeTransientComponents(entity);
 
         TextureRegionComponent component = textureRegionCM.get(entity);
-        engine.inject(component);
+        injectionCache.inject(component);
 
         if (rm.hasTextureRegion(component.regionName + ".normal")) {
             TextureAtlas.AtlasRegion regionDiffuse = (TextureAtlas.AtlasRegion) rm.getTextureRegion(component.regionName);
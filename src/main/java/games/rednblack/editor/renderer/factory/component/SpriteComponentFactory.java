@@ -100,7 +100,7 @@ public class SpriteComponentFactory extends ComponentFactory {
         stateComponent.set(spriteAnimationComponent);
 
         TextureRegionComponent textureRegionComponent = textureRegionCM.get(entity);
-        engine.inject(textureRegionComponent);
+        injectionCache.inject(textureRegionComponent);
         textureRegionComponent.region = regions.get(0);
     }
 
@@ -16,6 +16,7 @@ import games.rednblack.editor.renderer.components.physics.SensorUserData;
 import games.rednblack.editor.renderer.components.shape.CircleShapeComponent;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 import games.rednblack.editor.renderer.data.PhysicsBodyDataVO;
+import games.rednblack.editor.renderer.systems.WorldTransformSystem;
 import games.rednblack.editor.renderer.utils.ComponentRetriever;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
@@ -57,9 +58,14 @@ public class PhysicsBodyLoader {
 
         BodyDef bodyDef = new BodyDef();
         tmp.set(transformComponent.originX, transformComponent.originY);
-        ComponentMapper<TransformComponent> transformMapper = (ComponentMapper<TransformComponent>) ComponentMapper.getFor(TransformComponent.class, engine);
-        ComponentMapper<ParentNodeComponent> parentNodeMapper = (ComponentMapper<ParentNodeComponent>) ComponentMapper.getFor(ParentNodeComponent.class, engine);
-        TransformMathUtils.localToSceneCoordinates(entity, tmp, transformMapper, parentNodeMapper);
+        WorldTransformSystem worldTransformSystem = engine.getSystem(WorldTransformSystem.class);
+        if (worldTransformSystem != null) {
+            worldTransformSystem.localToSceneCoordinates(entity, tmp);
+        } else {
+            ComponentMapper<TransformComponent> transformMapper = (ComponentMapper<TransformComponent>) ComponentMapper.getFor(TransformComponent.class, engine);
+            ComponentMapper<ParentNodeComponent> parentNodeMapper = (ComponentMapper<ParentNodeComponent>) ComponentMapper.getFor(ParentNodeComponent.class, engine);
+            TransformMathUtils.localToSceneCoordinates(entity, tmp, transformMapper, parentNodeMapper);
+        }
         bodyDef.position.set(tmp.x, tmp.y);
         bodyDef.angle = transformComponent.rotation * MathUtils.degreesToRadians;
 
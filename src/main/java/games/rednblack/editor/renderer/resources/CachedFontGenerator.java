@@ -0,0 +1,302 @@
+package games.rednblack.editor.renderer.resources;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * FreeType font generation split in two stages: {@link #generate(FileHandle, int, boolean)} rasterizes glyphs into
+ * pixmaps without any GL call, so it can run on any thread, {@link #upload(FontPages)} creates page textures and the
+ * {@link BitmapFont} on the GL thread.
+ * <p>
+ * With a cache folder, generated pages are saved as png files next to a metrics file with the font data and glyphs,
+ * keyed by the crc of the font file, the size in pixels (font size times resolution multiplier) and mono flag.
+ * Next generations of the same font read them back without touching FreeType, a changed font file gets a new key.
+ */
+public class CachedFontGenerator {
+    public static final int MAGIC = 0x48324446; //H2DF
+    public static final int VERSION = 1;
+    public static final String METRICS_EXTENSION = ".fnt";
+
+    /**
+     * Font data and page pixmaps ready to be uploaded
+     */
+    public static class FontPages {
+        public final BitmapFont.BitmapFontData data;
+        public final Array<Pixmap> pages;
+
+        public FontPages(BitmapFont.BitmapFontData data, Array<Pixmap> pages) {
+            this.data = data;
+            this.pages = pages;
+        }
+    }
+
+    private final FileHandle cacheFolder;
+
+    /**
+     * @param cacheFolder writable folder of generated fonts, null to always generate them
+     */
+    public CachedFontGenerator(FileHandle cacheFolder) {
+        this.cacheFolder = cacheFolder;
+    }
+
+    /**
+     * Rasterize a font, or read it from the cache. No GL calls, can be called from any thread.
+     *
+     * @param size font size in pixels
+     */
+    public FontPages generate(FileHandle fontFile, int size, boolean mono) {
+        if (cacheFolder == null)
+            return rasterize(fontFile, size, mono);
+
+        String key = fontFile.nameWithoutExtension() + "_" + size + (mono ? "_mono_" : "_") + Long.toHexString(crc(fontFile));
+        FileHandle metrics = cacheFolder.child(key + METRICS_EXTENSION);
+        if (metrics.exists()) {
+            try {
+                return read(metrics, key);
+            } catch (IOException | GdxRuntimeException e) {
+                //Incomplete or outdated cache entry, generate it again
+            }
+        }
+
+        FontPages fontPages = rasterize(fontFile, size, mono);
+        try {
+            write(fontPages, metrics, key);
+        } catch (IOException | GdxRuntimeException e) {
+            //Read only storage, font is still usable
+            metrics.delete();
+        }
+        return fontPages;
+    }
+
+    /**
+     * Create page textures and the font, must be called from the GL thread. Pixmaps are owned by the textures
+     * and disposed with the font.
+     */
+    public BitmapFont upload(FontPages fontPages) {
+        Array<TextureRegion> regions = new Array<>(fontPages.pages.size);
+        for (final Pixmap pixmap : fontPages.pages) {
+            Texture texture = new Texture(new PixmapTextureData(pixmap, pixmap.getFormat(), false, false, true)) {
+                @Override
+                public void dispose() {
+                    super.dispose();
+                    pixmap.dispose();
+                }
+            };
+            texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            regions.add(new TextureRegion(texture));
+        }
+
+        BitmapFont font = new BitmapFont(fontPages.data, regions, true);
+        font.setOwnsTexture(true);
+        return font;
+    }
+
+    private FontPages rasterize(FileHandle fontFile, int size, boolean mono) {
+        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+        parameter.size = size;
+        parameter.mono = mono;
+
+        //Own packer, the one FreeTypeFontGenerator creates would upload pages right away. Same page size estimate,
+        //with 1.5 times the font size as line height
+        int pageSize = MathUtils.nextPowerOfTwo((int) Math.sqrt(size * size * 2.25f * parameter.characters.length()));
+        if (FreeTypeFontGenerator.getMaxTextureSize() > 0)
+            pageSize = Math.min(pageSize, FreeTypeFontGenerator.getMaxTextureSize());
+        PixmapPacker packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.GuillotineStrategy());
+        packer.setTransparentColor(parameter.color);
+        packer.getTransparentColor().a = 0;
+        parameter.packer = packer;
+
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
+        FreeTypeFontGenerator.FreeTypeBitmapFontData data;
+        try {
+            data = generator.generateData(parameter);
+        } finally {
+            generator.dispose();
+        }
+
+        Array<Pixmap> pages = new Array<>(packer.getPages().size);
+        for (PixmapPacker.Page page : packer.getPages()) {
+            pages.add(page.getPixmap());
+        }
+        return new FontPages(data, pages);
+    }
+
+    private void write(FontPages fontPages, FileHandle metrics, String key) throws IOException {
+        for (int i = 0; i < fontPages.pages.size; i++) {
+            PixmapIO.writePNG(cacheFolder.child(key + "_" + i + ".png"), fontPages.pages.get(i), Deflater.DEFAULT_COMPRESSION, false);
+        }
+
+        BitmapFont.BitmapFontData data = fontPages.data;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(metrics.write(false), 8192));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(fontPages.pages.size);
+
+            out.writeBoolean(data.flipped);
+            out.writeFloat(data.padTop);
+            out.writeFloat(data.padRight);
+            out.writeFloat(data.padBottom);
+            out.writeFloat(data.padLeft);
+            out.writeFloat(data.lineHeight);
+            out.writeFloat(data.capHeight);
+            out.writeFloat(data.ascent);
+            out.writeFloat(data.descent);
+            out.writeFloat(data.down);
+            out.writeFloat(data.blankLineScale);
+            out.writeFloat(data.scaleX);
+            out.writeFloat(data.scaleY);
+            out.writeBoolean(data.markupEnabled);
+            out.writeFloat(data.cursorX);
+            out.writeFloat(data.spaceXadvance);
+            out.writeFloat(data.xHeight);
+
+            int glyphs = 0;
+            for (BitmapFont.Glyph[] page : data.glyphs) {
+                if (page == null) continue;
+                for (BitmapFont.Glyph glyph : page) {
+                    if (glyph != null) glyphs++;
+                }
+            }
+            out.writeInt(glyphs);
+            for (BitmapFont.Glyph[] page : data.glyphs) {
+                if (page == null) continue;
+                for (BitmapFont.Glyph glyph : page) {
+                    if (glyph != null) writeGlyph(out, glyph);
+                }
+            }
+            out.writeBoolean(data.missingGlyph != null);
+            if (data.missingGlyph != null) writeGlyph(out, data.missingGlyph);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    private void writeGlyph(DataOutputStream out, BitmapFont.Glyph glyph) throws IOException {
+        out.writeInt(glyph.id);
+        out.writeInt(glyph.srcX);
+        out.writeInt(glyph.srcY);
+        out.writeInt(glyph.width);
+        out.writeInt(glyph.height);
+        out.writeInt(glyph.xoffset);
+        out.writeInt(glyph.yoffset);
+        out.writeInt(glyph.xadvance);
+        out.writeInt(glyph.page);
+        out.writeBoolean(glyph.fixedWidth);
+
+        int kernings = 0;
+        if (glyph.kerning != null) {
+            for (byte[] page : glyph.kerning) {
+                if (page == null) continue;
+                for (byte value : page) {
+                    if (value != 0) kernings++;
+                }
+            }
+        }
+        out.writeInt(kernings);
+        if (kernings == 0) return;
+
+        for (int i = 0; i < glyph.kerning.length; i++) {
+            byte[] page = glyph.kerning[i];
+            if (page == null) continue;
+            for (int j = 0; j < page.length; j++) {
+                if (page[j] != 0) {
+                    out.writeInt(i * page.length + j);
+                    out.writeByte(page[j]);
+                }
+            }
+        }
+    }
+
+    private FontPages read(FileHandle metrics, String key) throws IOException {
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+        Array<Pixmap> pages = new Array<>();
+
+        DataInputStream in = new DataInputStream(metrics.read(8192));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Unsupported font cache " + metrics.path());
+
+            int pageCount = in.readInt();
+
+            data.flipped = in.readBoolean();
+            data.padTop = in.readFloat();
+            data.padRight = in.readFloat();
+            data.padBottom = in.readFloat();
+            data.padLeft = in.readFloat();
+            data.lineHeight = in.readFloat();
+            data.capHeight = in.readFloat();
+            data.ascent = in.readFloat();
+            data.descent = in.readFloat();
+            data.down = in.readFloat();
+            data.blankLineScale = in.readFloat();
+            data.scaleX = in.readFloat();
+            data.scaleY = in.readFloat();
+            data.markupEnabled = in.readBoolean();
+            data.cursorX = in.readFloat();
+            data.spaceXadvance = in.readFloat();
+            data.xHeight = in.readFloat();
+
+            int glyphs = in.readInt();
+            for (int i = 0; i < glyphs; i++) {
+                BitmapFont.Glyph glyph = readGlyph(in);
+                data.setGlyph(glyph.id, glyph);
+            }
+            if (in.readBoolean())
+                data.missingGlyph = readGlyph(in);
+
+            for (int i = 0; i < pageCount; i++) {
+                pages.add(new Pixmap(cacheFolder.child(key + "_" + i + ".png")));
+            }
+        } catch (IOException | GdxRuntimeException e) {
+            for (Pixmap pixmap : pages)
+                pixmap.dispose();
+            throw e;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+        return new FontPages(data, pages);
+    }
+
+    private BitmapFont.Glyph readGlyph(DataInputStream in) throws IOException {
+        BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+        glyph.id = in.readInt();
+        glyph.srcX = in.readInt();
+        glyph.srcY = in.readInt();
+        glyph.width = in.readInt();
+        glyph.height = in.readInt();
+        glyph.xoffset = in.readInt();
+        glyph.yoffset = in.readInt();
+        glyph.xadvance = in.readInt();
+        glyph.page = in.readInt();
+        glyph.fixedWidth = in.readBoolean();
+
+        int kernings = in.readInt();
+        for (int i = 0; i < kernings; i++) {
+            int ch = in.readInt();
+            glyph.setKerning(ch, in.readByte());
+        }
+        return glyph;
+    }
+
+    private static long crc(FileHandle file) {
+        CRC32 crc = new CRC32();
+        crc.update(file.readBytes());
+        return crc.getValue();
+    }
+}
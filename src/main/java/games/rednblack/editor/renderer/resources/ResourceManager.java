@@ -5,7 +5,6 @@ import java.util.*;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
@@ -13,9 +12,14 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import games.rednblack.editor.renderer.SceneConfiguration;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
 import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.utils.HyperBinary;
+import games.rednblack.editor.renderer.utils.HyperBinaryConverter;
 import games.rednblack.editor.renderer.utils.HyperJson;
 
 /**
@@ -39,6 +43,23 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
     public String fontsPath = "freetypefonts";
     public String shadersPath = "shaders";
 
+    /**
+     * Threads parsing scene files in {@link #initAllResources()}, 1 parses them one by one on the calling thread
+     */
+    public int sceneParsingThreads = 1;
+
+    /**
+     * Threads rasterizing fonts in background, see {@link #generateFonts()}
+     */
+    public int fontGenerationThreads = 1;
+
+    /**
+     * Local folder caching generated fonts, next loads don't run FreeType. Disabled by default, enable it
+     * before loading the first scene, e.g. {@code resourceManager.fontCachePath = "fontcache";}.
+     * Changed font files get new entries, delete the folder to drop old ones.
+     */
+    public String fontCachePath = null;
+
     protected float resMultiplier;
 
     protected ProjectInfoVO projectVO;
@@ -58,6 +79,9 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
     protected HashMap<String, ShaderProgram> shaderPrograms = new HashMap<>();
     protected HashMap<String, Array<TextureAtlas.AtlasRegion>> spriteAnimations = new HashMap<>();
     protected HashMap<FontSizePair, BitmapFont> bitmapFonts = new HashMap<>();
+    protected ObjectMap<FontSizePair, AsyncResult<CachedFontGenerator.FontPages>> generatingFonts = new ObjectMap<>();
+    protected CachedFontGenerator fontGenerator;
+    protected AsyncExecutor fontExecutor;
     protected IntMap<HashMap<String, Object>> externalItems = new IntMap<>();
 
     protected IntMap<IExternalItemType> externalItemTypes = new IntMap<>();
@@ -94,8 +118,14 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
      */
     public void initAllResources() {
         loadProjectVO();
+        if (sceneParsingThreads > 1 && projectVO.scenes.size() > 1) {
+            loadSceneVOsParallel();
+        } else {
+            for (int i = 0; i < projectVO.scenes.size(); i++) {
+                loadSceneVO(projectVO.scenes.get(i).sceneName);
+            }
+        }
         for (int i = 0; i < projectVO.scenes.size(); i++) {
-            loadSceneVO(projectVO.scenes.get(i).sceneName);
             scheduleScene(projectVO.scenes.get(i).sceneName);
         }
         prepareAssetsToLoad();
@@ -346,8 +376,30 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
         }
     }
 
+    /**
+     * Load fonts scheduled to load, waiting for the ones started by {@link #generateFonts()}. Glyphs are rasterized
+     * in background, page textures are uploaded on the calling thread, that must be the GL thread.
+     */
     @Override
     public void loadFonts() {
+        if (generatingFonts.size == 0)
+            generateFonts();
+
+        for (ObjectMap.Entry<FontSizePair, AsyncResult<CachedFontGenerator.FontPages>> entry : generatingFonts) {
+            BitmapFont font = getFontGenerator().upload(entry.value.get());
+            font.setUseIntegerPositions(false);
+            if (entry.key.monoSpace)
+                font.setFixedWidthGlyphs(FreeTypeFontGenerator.DEFAULT_CHARS);
+            bitmapFonts.put(entry.key, font);
+        }
+        generatingFonts.clear();
+    }
+
+    /**
+     * Start rasterizing fonts scheduled to load on {@link #fontGenerationThreads} threads, or reading them from
+     * {@link #fontCachePath} when set. No GL calls, can be called from any thread, fonts are ready after {@link #loadFonts()}.
+     */
+    public void generateFonts() {
         //resolution related stuff
         ResolutionEntryVO curResolution = getProjectVO().getResolution(packResolutionName);
         resMultiplier = 1;
@@ -360,43 +412,111 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
         }
 
         // empty existing ones that are not scheduled to load
-        for (FontSizePair pair : bitmapFonts.keySet()) {
-            if (!fontsToLoad.contains(pair)) {
-                bitmapFonts.remove(pair);
+        Iterator<FontSizePair> loaded = bitmapFonts.keySet().iterator();
+        while (loaded.hasNext()) {
+            if (!fontsToLoad.contains(loaded.next())) {
+                loaded.remove();
             }
         }
 
-        for (FontSizePair pair : fontsToLoad) {
-            loadFont(pair);
+        if (fontExecutor == null)
+            fontExecutor = new AsyncExecutor(Math.max(1, fontGenerationThreads), "FontGenerator");
+        final CachedFontGenerator generator = getFontGenerator();
+
+        for (final FontSizePair pair : fontsToLoad) {
+            final FileHandle fontFile = Gdx.files.internal(fontsPath + File.separator + pair.fontName + ".ttf");
+            final int size = Math.round(pair.fontSize * resMultiplier);
+            generatingFonts.put(pair, fontExecutor.submit(new AsyncTask<CachedFontGenerator.FontPages>() {
+                @Override
+                public CachedFontGenerator.FontPages call() throws Exception {
+                    return generator.generate(fontFile, size, pair.monoSpace);
+                }
+            }));
         }
     }
 
+    /**
+     * Load a font on the calling thread, that must be the GL thread
+     */
     public void loadFont(FontSizePair pair) {
-        FileHandle fontFile;
-        fontFile = Gdx.files.internal(fontsPath + File.separator + pair.fontName + ".ttf");
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
-        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        parameter.size = Math.round(pair.fontSize * resMultiplier);
-        parameter.mono = pair.monoSpace;
-        BitmapFont font = generator.generateFont(parameter);
-        font.getRegion().getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        CachedFontGenerator generator = getFontGenerator();
+        FileHandle fontFile = Gdx.files.internal(fontsPath + File.separator + pair.fontName + ".ttf");
+        BitmapFont font = generator.upload(generator.generate(fontFile, Math.round(pair.fontSize * resMultiplier), pair.monoSpace));
         font.setUseIntegerPositions(false);
         if (pair.monoSpace)
             font.setFixedWidthGlyphs(FreeTypeFontGenerator.DEFAULT_CHARS);
         bitmapFonts.put(pair, font);
     }
 
+    protected CachedFontGenerator getFontGenerator() {
+        if (fontGenerator == null) {
+            FileHandle cacheFolder = null;
+            if (fontCachePath != null && Gdx.files.isLocalStorageAvailable())
+                cacheFolder = Gdx.files.local(fontCachePath);
+            fontGenerator = new CachedFontGenerator(cacheFolder);
+        }
+        return fontGenerator;
+    }
+
     @Override
     public SceneVO loadSceneVO(String sceneName) {
-        FileHandle file = Gdx.files.internal(scenesPath + File.separator + sceneName + ".dt");
-        Json json = HyperJson.getJson();
-        SceneVO sceneVO = json.fromJson(SceneVO.class, file.readString());
+        SceneVO sceneVO = readSceneVO(sceneName, HyperJson.getJson());
 
         loadedSceneVOs.put(sceneName, sceneVO);
 
         return sceneVO;
     }
 
+    /**
+     * Parse all the scenes of the project on {@link #sceneParsingThreads} threads, each thread with its own {@link Json}.
+     * Parsed scenes are stored on the calling thread once all of them are ready.
+     */
+    protected void loadSceneVOsParallel() {
+        final ThreadLocal<Json> threadJson = new ThreadLocal<Json>() {
+            @Override
+            protected Json initialValue() {
+                return HyperJson.createJson();
+            }
+        };
+
+        int scenes = projectVO.scenes.size();
+        AsyncExecutor executor = new AsyncExecutor(Math.min(sceneParsingThreads, scenes), "SceneParser");
+        Array<AsyncResult<SceneVO>> results = new Array<>(scenes);
+        try {
+            for (int i = 0; i < scenes; i++) {
+                final String sceneName = projectVO.scenes.get(i).sceneName;
+                results.add(executor.submit(new AsyncTask<SceneVO>() {
+                    @Override
+                    public SceneVO call() throws Exception {
+                        return readSceneVO(sceneName, threadJson.get());
+                    }
+                }));
+            }
+            for (int i = 0; i < scenes; i++) {
+                loadedSceneVOs.put(projectVO.scenes.get(i).sceneName, results.get(i).get());
+            }
+        } finally {
+            executor.dispose();
+        }
+    }
+
+    /**
+     * Read and parse a scene file without storing it, can be called from any thread with its own json.
+     * Binary scenes converted with {@link HyperBinaryConverter} are preferred to json ones,
+     * unless the json file changed after the conversion.
+     */
+    protected SceneVO readSceneVO(String sceneName, Json json) {
+        FileHandle file = Gdx.files.internal(scenesPath + File.separator + sceneName + ".dt");
+        FileHandle binaryFile = Gdx.files.internal(scenesPath + File.separator + sceneName + HyperBinary.EXTENSION);
+        if (binaryFile.exists()) {
+            SceneVO sceneVO = new HyperBinary().fromFile(SceneVO.class, binaryFile, file);
+            if (sceneVO != null)
+                return sceneVO;
+        }
+
+        return json.fromJson(SceneVO.class, file.readString());
+    }
+
     public void unLoadSceneVO(String sceneName) {
         loadedSceneVOs.remove(sceneName);
     }
@@ -405,6 +525,13 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
     public ProjectInfoVO loadProjectVO() {
 
         FileHandle file = Gdx.files.internal("project.dt");
+        FileHandle binaryFile = Gdx.files.internal("project" + HyperBinary.EXTENSION);
+        if (binaryFile.exists()) {
+            projectVO = new HyperBinary().fromFile(ProjectInfoVO.class, binaryFile, file);
+            if (projectVO != null)
+                return projectVO;
+        }
+
         Json json = HyperJson.getJson();
         projectVO = json.fromJson(ProjectInfoVO.class, file.readString());
 
@@ -499,6 +626,9 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
         for (BitmapFont font : bitmapFonts.values()) {
             font.dispose();
         }
+
+        if (fontExecutor != null)
+            fontExecutor.dispose();
     }
 
     @Override
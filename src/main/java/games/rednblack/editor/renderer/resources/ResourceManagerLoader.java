@@ -48,6 +48,7 @@ public class ResourceManagerLoader extends AsynchronousAssetLoader<AsyncResource
         this.asyncResourceManager.loadReverseAtlasMap();
         this.asyncResourceManager.loadSpriteAnimations();
         this.asyncResourceManager.loadParticleEffects();
+        this.asyncResourceManager.generateFonts();
 
         this.asyncResourceManager.loadExternalTypesAsync();
     }
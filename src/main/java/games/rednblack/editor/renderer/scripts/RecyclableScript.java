@@ -0,0 +1,17 @@
+package games.rednblack.editor.renderer.scripts;
+
+/**
+ * Interface to reset the state of scripts of recycled library items, to be used with {@link IScript}.
+ * See {@link games.rednblack.editor.renderer.SceneLoader#setRecycling(String, boolean)}
+ */
+public interface RecyclableScript {
+    /**
+     * Called when the item is despawned and goes back to its pool, the script is kept with the entity
+     */
+    void onDespawn();
+
+    /**
+     * Called when the item is reused, after its position and layer have been set
+     */
+    void onRespawn();
+}
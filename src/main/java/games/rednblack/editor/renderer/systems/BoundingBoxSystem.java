@@ -1,13 +1,20 @@
 package games.rednblack.editor.renderer.systems;
 
+import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
+import com.artemis.annotations.SkipWire;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Rectangle;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.utils.ParallelSubtreeRunner;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
 @All(BoundingBoxComponent.class)
+@Exclude(DespawnedComponent.class)
 public class BoundingBoxSystem extends IteratingSystem {
 
     protected ComponentMapper<DimensionsComponent> dimensionsMapper;
@@ -16,75 +23,162 @@ public class BoundingBoxSystem extends IteratingSystem {
     protected ComponentMapper<MainItemComponent> mainItemMapper;
     protected ComponentMapper<TransformComponent> transformMapper;
 
-    @Override
-    protected void process(int entity) {
-        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
-        BoundingBoxComponent b = boundingBoxMapper.get(entity);
+    protected ComponentMapper<NodeComponent> nodeMapper;
+    protected ComponentMapper<ViewPortComponent> viewPortMapper;
+    protected ComponentMapper<DespawnedComponent> despawnedMapper;
 
-        MainItemComponent m = null;
-        if (parentNode != null && parentNode.parentEntity != -1){
-            m = mainItemMapper.get(parentNode.parentEntity);
-        }
+    @SkipWire
+    private CullingSystem cullingSystem;
 
-        DimensionsComponent d = dimensionsMapper.get(entity);
-        TransformComponent t = transformMapper.get(entity);
+    private final Affine2 polygonTransform = new Affine2();
 
-        if (m != null && (!m.visible || m.culled))
-                return;
+    //Per chunk data used in parallel mode
+    private Affine2[] chunkTransforms;
+    private IntBag[] chunkChanged;
+    private int frame = 0;
 
-        float originalX = t.x;
-        float originalY = t.y;
-        float originalWidth = d.width;
-        float originalHeight = d.height;
+    private final ParallelSubtreeRunner.SubtreeJob subtreeJob = new ParallelSubtreeRunner.SubtreeJob() {
+        @Override
+        public void process(int entity, int chunk) {
+            processSubtree(entity, chunk);
+        }
+    };
 
-        if (d.polygon != null) {
-            Rectangle rectangle = d.polygon.getBoundingRectangle();
-            d.width = rectangle.width;
-            d.height = rectangle.height;
-            t.x += rectangle.x;
-            t.y += rectangle.y;
+    @Override
+    protected void initialize() {
+        cullingSystem = getWorld().getSystem(CullingSystem.class);
+    }
+
+    /**
+     * In parallel mode the subtrees of the root's children are refreshed here, remaining
+     * entities are processed as usual in {@link #process(int)}.
+     */
+    @Override
+    protected void begin() {
+        frame++;
+
+        ParallelSubtreeRunner runner = cullingSystem != null ? cullingSystem.getParallelRunner() : null;
+        if (runner == null)
+            return;
+
+        if (chunkChanged == null || chunkChanged.length != runner.getChunksCount()) {
+            chunkTransforms = new Affine2[runner.getChunksCount()];
+            chunkChanged = new IntBag[runner.getChunksCount()];
+            for (int i = 0; i < chunkChanged.length; i++) {
+                chunkTransforms[i] = new Affine2();
+                chunkChanged[i] = new IntBag();
+            }
+        }
+
+        IntBag roots = getWorld().getAspectSubscriptionManager().get(Aspect.all(ViewPortComponent.class, NodeComponent.class)).getEntities();
+        int[] rootIds = roots.getData();
+        for (int i = 0, s = roots.size(); s > i; i++) {
+            NodeComponent node = nodeMapper.get(rootIds[i]);
+            int[] children = node.children.begin();
+            runner.run(children, node.children.size, subtreeJob);
+            node.children.end();
         }
 
-        float checksum = calcCheckSum(entity);
-        if (checksum != b.checksum) {
-            b.points[0].set(0, 0);
-            b.points[1].set(d.width, 0);
-            b.points[2].set(d.width, d.height);
-            b.points[3].set(0, d.height);
+        //Spatial index is not thread safe, notify changes once all threads completed
+        for (IntBag changed : chunkChanged) {
+            int[] ids = changed.getData();
+            for (int i = 0, s = changed.size(); s > i; i++) {
+                cullingSystem.onBoundingBoxChanged(ids[i]);
+            }
+            changed.clear();
+        }
+    }
 
-            TransformMathUtils.localToSceneCoordinates(entity, b.points, transformMapper, parentNodeMapper);
+    private void processSubtree(int entity, int chunk) {
+        if (despawnedMapper.has(entity))
+            return;
 
-            b.checksum = checksum;
-            b.createBoundingRect();
+        BoundingBoxComponent b = boundingBoxMapper.get(entity);
+        if (b != null) {
+            b.frame = frame;
+            if (isParentVisible(entity) && refresh(entity, b, chunkTransforms[chunk]))
+                chunkChanged[chunk].add(entity);
         }
 
-        if (d.polygon != null) {
-            d.width = originalWidth;
-            d.height = originalHeight;
-            t.x = originalX;
-            t.y = originalY;
+        NodeComponent node = nodeMapper.get(entity);
+        if (node != null) {
+            int[] children = node.children.begin();
+            for (int i = 0, n = node.children.size; i < n; i++) {
+                processSubtree(children[i], chunk);
+            }
+            node.children.end();
         }
     }
 
-    private float calcCheckSum(int entity) {
+    @Override
+    protected void process(int entity) {
+        BoundingBoxComponent b = boundingBoxMapper.get(entity);
+        if (b.frame == frame || !isParentVisible(entity))
+            return;
+
+        if (refresh(entity, b, polygonTransform) && cullingSystem != null)
+            cullingSystem.onBoundingBoxChanged(entity);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void updateChecksum(BoundingBoxComponent b) {
+        b.checksum++;
+    }
+
+    private boolean isParentVisible(int entity) {
         ParentNodeComponent parentNode = parentNodeMapper.get(entity);
-        TransformComponent t = transformMapper.get(entity);
+        if (parentNode != null && parentNode.parentEntity != -1) {
+            MainItemComponent m = mainItemMapper.get(parentNode.parentEntity);
+            return m == null || (m.visible && !m.culled);
+        }
+        return true;
+    }
+
+    /**
+     * Recalculate the bounding box only if the scene transform or the dimensions of the entity
+     * changed since last update. {@link WorldTransformSystem} runs before this system, so the cached
+     * {@link TransformComponent#sceneTransform} is already up to date.
+     * Only components of the entity are modified, so it's safe to call it from different threads
+     * on different entities.
+     *
+     * @return true if the bounding box has been updated
+     */
+    private boolean refresh(int entity, BoundingBoxComponent b, Affine2 tmpTransform) {
         DimensionsComponent d = dimensionsMapper.get(entity);
+        TransformComponent t = transformMapper.get(entity);
+
+        int transformVersion = t.sceneVersion;
+        int dimensionsVersion = d.getVersion();
+        if (transformVersion == b.transformVersion && dimensionsVersion == b.dimensionsVersion)
+            return false;
+
+        Affine2 sceneTransform = t.sceneTransform;
+        float width = d.width;
+        float height = d.height;
 
-        float scaleX = t.scaleX * (t.flipX ? -1 : 1);
-        float scaleY = t.scaleY * (t.flipY ? -1 : 1);
-
-        float checksum = t.rotation + scaleX + scaleY + t.x + t.y + t.originX + t.originY + d.width + d.height;
-        while (parentNode != null && parentNode.parentEntity != -1) {
-            TransformComponent pt = transformMapper.get(parentNode.parentEntity);
-            DimensionsComponent dt = dimensionsMapper.get(parentNode.parentEntity);
-            if (pt == null || dt == null)
-                break;
-            float pScaleX = pt.scaleX * (pt.flipX ? -1 : 1);
-            float pScaleY = pt.scaleY * (pt.flipY ? -1 : 1);
-            checksum += pt.rotation + pScaleX + pScaleY + pt.x + pt.y + pt.originX + pt.originY + dt.width + dt.height;
-            parentNode = parentNodeMapper.get(parentNode.parentEntity);
+        if (d.polygon != null) {
+            Rectangle rectangle = d.polygon.getBoundingRectangle();
+            width = rectangle.width;
+            height = rectangle.height;
+
+            //Polygon bounds offset is applied as a translation in parent's coordinates
+            TransformMathUtils.localTransform(t, tmpTransform).preTranslate(rectangle.x, rectangle.y);
+            ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+            if (parentNode != null && parentNode.parentEntity != -1 && transformMapper.has(parentNode.parentEntity))
+                tmpTransform.preMul(transformMapper.get(parentNode.parentEntity).sceneTransform);
+            sceneTransform = tmpTransform;
         }
-        return checksum;
+
+        sceneTransform.applyTo(b.points[0].set(0, 0));
+        sceneTransform.applyTo(b.points[1].set(width, 0));
+        sceneTransform.applyTo(b.points[2].set(width, height));
+        sceneTransform.applyTo(b.points[3].set(0, height));
+
+        b.createBoundingRect();
+
+        b.transformVersion = transformVersion;
+        b.dimensionsVersion = dimensionsVersion;
+        updateChecksum(b);
+        return true;
     }
 }
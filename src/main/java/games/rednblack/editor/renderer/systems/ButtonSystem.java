@@ -2,6 +2,8 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
+import com.artemis.annotations.SkipWire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
@@ -13,6 +15,7 @@ import games.rednblack.editor.renderer.utils.TransformMathUtils;
  * Created by azakhary on 8/1/2015.
  */
 @All(ButtonComponent.class)
+@Exclude(DespawnedComponent.class)
 public class ButtonSystem extends IteratingSystem {
 
     protected ComponentMapper<ButtonComponent> buttonComponentMapper;
@@ -24,8 +27,17 @@ public class ButtonSystem extends IteratingSystem {
     protected ComponentMapper<TransformComponent> transformMapper;
     protected ComponentMapper<ParentNodeComponent> parentMapper;
 
+    //Optional, scene coordinates are calculated walking up the hierarchy without it
+    @SkipWire
+    protected WorldTransformSystem worldTransformSystem;
+
     private final Vector2 tmp = new Vector2();
 
+    @Override
+    protected void initialize() {
+        worldTransformSystem = getWorld().getSystem(WorldTransformSystem.class);
+    }
+
     @Override
     protected void process(int entity) {
         NodeComponent nodeComponent = nodeComponentMapper.get(entity);
@@ -33,7 +45,7 @@ public class ButtonSystem extends IteratingSystem {
         if (nodeComponent == null) return;
 
         for (int i = 0; i < nodeComponent.children.size; i++) {
-            Integer childEntity = nodeComponent.children.get(i);
+            int childEntity = nodeComponent.children.get(i);
             MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
             childMainItemComponent.visible = true;
         }
@@ -46,7 +58,7 @@ public class ButtonSystem extends IteratingSystem {
 
 
         for (int i = 0; i < nodeComponent.children.size; i++) {
-            Integer childEntity = nodeComponent.children.get(i);
+            int childEntity = nodeComponent.children.get(i);
             MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
             ZIndexComponent childZComponent = zIndexComponentMapper.get(childEntity);
             if (isTouched(entity)) {
@@ -68,13 +80,16 @@ public class ButtonSystem extends IteratingSystem {
 
     }
 
-    private boolean isTouched(Integer entity) {
+    private boolean isTouched(int entity) {
         ButtonComponent buttonComponent = buttonComponentMapper.get(entity);
         if (Gdx.input.isTouched()) {
             DimensionsComponent dimensionsComponent = dimensionsComponentMapper.get(entity);
             tmp.set(Gdx.input.getX(), Gdx.input.getY());
 
-            TransformMathUtils.globalToLocalCoordinates(entity, tmp, transformMapper, parentMapper, viewPortComponentMapper);
+            if (worldTransformSystem != null)
+                worldTransformSystem.globalToLocalCoordinates(entity, tmp);
+            else
+                TransformMathUtils.globalToLocalCoordinates(entity, tmp, transformMapper, parentMapper, viewPortComponentMapper);
 
             if (dimensionsComponent.hit(tmp.x, tmp.y)) {
                 buttonComponent.setTouchState(true);
@@ -2,14 +2,18 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.math.Matrix3;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.SnapshotArray;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
 @All(CompositeTransformComponent.class)
+@Exclude(DespawnedComponent.class)
+@SystemAccess(reads = ViewPortComponent.class, writes = {NodeComponent.class, TransformComponent.class, DimensionsComponent.class, CompositeTransformComponent.class})
 public class CompositeSystem extends IteratingSystem {
 
     protected ComponentMapper<DimensionsComponent> dimensionsMapper;
@@ -67,9 +71,9 @@ public class CompositeSystem extends IteratingSystem {
         float scaleY = t.scaleY * (t.flipY ? -1 : 1);
 
         float checksum = t.rotation + scaleX + scaleY + t.x + t.y + t.originX + t.originY + d.width + d.height;
-        Integer[] children = nodeComponent.children.begin();
+        int[] children = nodeComponent.children.begin();
         for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
-            Integer child = children[i];
+            int child = children[i];
             TransformComponent pt = transformMapper.get(child);
             DimensionsComponent dt = dimensionsMapper.get(child);
             if (pt == null || dt == null)
@@ -87,8 +91,9 @@ public class CompositeSystem extends IteratingSystem {
         float lowerY = Float.MAX_VALUE;
         float upperX = Float.MIN_VALUE;
         float upperY = Float.MIN_VALUE;
-        SnapshotArray<Integer> entities = nodeComponent.children;
-        for (Integer entity : entities) {
+        SnapshotIntArray entities = nodeComponent.children;
+        for (int i = 0; i < entities.size; i++) {
+            int entity = entities.get(i);
             TransformComponent transformComponent = transformMapper.get(entity);
             DimensionsComponent childDimCom = dimensionsMapper.get(entity);
             float x = transformComponent.x;
@@ -116,15 +121,16 @@ public class CompositeSystem extends IteratingSystem {
             upperY = getY(MinMaxOp.MAX, tmpVectorArray);
         }
 
-        for (Integer entity : entities) {
+        for (int i = 0; i < entities.size; i++) {
             if (lowerX == 0 && lowerY == 0) break;
+            int entity = entities.get(i);
             TransformComponent transformComponent = transformMapper.get(entity);
             transformComponent.x -= lowerX;
             transformComponent.y -= lowerY;
+            transformComponent.markDirty();
         }
 
-        dimensionsComponent.width = Math.max((upperX - lowerX), 0);
-        dimensionsComponent.height = Math.max((upperY - lowerY), 0);
+        dimensionsComponent.setSize(Math.max((upperX - lowerX), 0), Math.max((upperY - lowerY), 0));
         lowerX = 0;
         lowerY = 0;
         dimensionsComponent.boundBox.set(lowerX, lowerY, dimensionsComponent.width, dimensionsComponent.height);
@@ -1,12 +1,17 @@
 package games.rednblack.editor.renderer.systems;
 
+import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
 import com.artemis.annotations.All;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.utils.ParallelSubtreeRunner;
+import games.rednblack.editor.renderer.utils.SpatialHashGrid;
 
 @All(ViewPortComponent.class)
 public class CullingSystem extends IteratingSystem {
@@ -17,6 +22,8 @@ public class CullingSystem extends IteratingSystem {
     protected ComponentMapper<NodeComponent> nodeMapper;
     protected ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
     protected ComponentMapper<MainItemComponent> mainItemMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
+    protected ComponentMapper<DespawnedComponent> despawnedMapper;
 
     private final Rectangle view = new Rectangle();
     private OrthographicCamera camera;
@@ -24,6 +31,42 @@ public class CullingSystem extends IteratingSystem {
     private final ShapeRenderer shapeRenderer = new ShapeRenderer();
     private float ppwu = 1;
 
+    //Optional broadphase index of root's children
+    private SpatialHashGrid spatialIndex = null;
+    private final IntBag visibleEntities = new IntBag();
+    private final IntBag queryResult = new IntBag();
+
+    //Optional thread pool used to process root's children subtrees in parallel
+    private ParallelSubtreeRunner parallelRunner = null;
+    private final ParallelSubtreeRunner.SubtreeJob cullJob = new ParallelSubtreeRunner.SubtreeJob() {
+        @Override
+        public void process(int entity, int chunk) {
+            cull(entity);
+        }
+    };
+
+    @Override
+    protected void initialize() {
+        getWorld().getAspectSubscriptionManager()
+                .get(Aspect.all(BoundingBoxComponent.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        if (spatialIndex == null) return;
+
+                        int[] ids = entities.getData();
+                        for (int i = 0, s = entities.size(); s > i; i++) {
+                            spatialIndex.remove(ids[i]);
+                            visibleEntities.removeValue(ids[i]);
+                        }
+                    }
+                });
+    }
+
     @Override
     protected void process(int entity) {
         ViewPortComponent viewPort = viewPortMapper.get(entity);
@@ -42,21 +85,30 @@ public class CullingSystem extends IteratingSystem {
             shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
         }
 
-        NodeComponent node = nodeMapper.get(entity);
-        Integer[] children = node.children.begin();
-        for (int i = 0, n = node.children.size; i < n; i++) {
-            Integer child = children[i];
-            cull(child);
+        if (spatialIndex != null) {
+            cullSpatialIndex();
+        } else if (parallelRunner != null && !debug) {
+            NodeComponent node = nodeMapper.get(entity);
+            int[] children = node.children.begin();
+            parallelRunner.run(children, node.children.size, cullJob);
+            node.children.end();
+        } else {
+            NodeComponent node = nodeMapper.get(entity);
+            int[] children = node.children.begin();
+            for (int i = 0, n = node.children.size; i < n; i++) {
+                int child = children[i];
+                cull(child);
+            }
+            node.children.end();
         }
-        node.children.end();
 
         if (debug)
             shapeRenderer.end();
     }
 
-    void cull(Integer entity) {
+    void cull(int entity) {
         BoundingBoxComponent b = boundingBoxMapper.get(entity);
-        if (b==null) return;
+        if (b==null || despawnedMapper.has(entity)) return;
 
         MainItemComponent m = mainItemMapper.get(entity);
 
@@ -74,9 +126,9 @@ public class CullingSystem extends IteratingSystem {
             NodeComponent node = nodeMapper.get(entity);
 
             if (node != null) {
-                Integer[] children = node.children.begin();
+                int[] children = node.children.begin();
                 for (int i = 0, n = node.children.size; i < n; i++) {
-                    Integer child = children[i];
+                    int child = children[i];
                     cull(child);
                 }
                 node.children.end();
@@ -84,6 +136,118 @@ public class CullingSystem extends IteratingSystem {
         }
     }
 
+    /**
+     * Only test entities stored in cells intersecting the camera view,
+     * everything that was visible in the previous frame is marked as culled in bulk.
+     */
+    private void cullSpatialIndex() {
+        int[] ids = visibleEntities.getData();
+        for (int i = 0, s = visibleEntities.size(); s > i; i++) {
+            MainItemComponent m = mainItemMapper.get(ids[i]);
+            if (m != null)
+                m.culled = true;
+        }
+        visibleEntities.clear();
+
+        spatialIndex.query(view, queryResult);
+        ids = queryResult.getData();
+        for (int i = 0, s = queryResult.size(); s > i; i++) {
+            int child = ids[i];
+            cull(child);
+
+            MainItemComponent m = mainItemMapper.get(child);
+            if (m != null && !m.culled)
+                visibleEntities.add(child);
+        }
+    }
+
+    /**
+     * Notify the spatial index that entity's {@link BoundingBoxComponent} has been updated.
+     * Only root's children are indexed, nested entities are culled together with their parent.
+     */
+    public void onBoundingBoxChanged(int entity) {
+        if (spatialIndex == null) return;
+
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        if (parentNode == null || parentNode.parentEntity == -1 || !viewPortMapper.has(parentNode.parentEntity)) {
+            spatialIndex.remove(entity);
+            return;
+        }
+
+        if (!spatialIndex.contains(entity)) {
+            //New entities will be visible only if the next query finds them
+            mainItemMapper.get(entity).culled = true;
+        }
+        spatialIndex.update(entity, boundingBoxMapper.get(entity).rectangle);
+    }
+
+    /**
+     * Enable the uniform grid broadphase, culling cost will depend only on entities near the camera.
+     * Root's children without {@link BoundingBoxComponent} aren't indexed and, as without the index, are never culled.
+     *
+     * @param cellSize size of grid cells in world units, 0 to disable spatial index
+     */
+    public void setSpatialIndex(float cellSize) {
+        if (getWorld() == null) {
+            //Not yet attached to a world, nothing to refresh
+            spatialIndex = cellSize > 0 ? new SpatialHashGrid(cellSize) : null;
+            return;
+        }
+
+        if (spatialIndex != null) {
+            //Restore entities marked in bulk
+            IntBag entities = getWorld().getAspectSubscriptionManager().get(Aspect.all(MainItemComponent.class)).getEntities();
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); s > i; i++) {
+                mainItemMapper.get(ids[i]).culled = false;
+            }
+        }
+        visibleEntities.clear();
+        spatialIndex = cellSize > 0 ? new SpatialHashGrid(cellSize) : null;
+        if (spatialIndex != null) {
+            //Force BoundingBoxSystem to notify all the bounding boxes again
+            IntBag entities = getWorld().getAspectSubscriptionManager().get(Aspect.all(BoundingBoxComponent.class)).getEntities();
+            int[] ids = entities.getData();
+            for (int i = 0, s = entities.size(); s > i; i++) {
+                boundingBoxMapper.get(ids[i]).invalidate();
+            }
+        }
+    }
+
+    /**
+     * Enable the parallel mode, bounding boxes refresh and cull tests of each root's child subtree
+     * will be distributed across a pool of threads. Debug drawing always runs on the calling thread.
+     *
+     * @param parallelism number of threads, 1 or less to disable parallel mode
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelRunner != null) {
+            if (parallelRunner.getParallelism() == parallelism)
+                return;
+            parallelRunner.dispose();
+        }
+        parallelRunner = parallelism > 1 ? new ParallelSubtreeRunner(parallelism) : null;
+    }
+
+    public int getParallelism() {
+        return parallelRunner != null ? parallelRunner.getParallelism() : 1;
+    }
+
+    public ParallelSubtreeRunner getParallelRunner() {
+        return parallelRunner;
+    }
+
+    @Override
+    public void dispose() {
+        if (parallelRunner != null)
+            parallelRunner.dispose();
+        parallelRunner = null;
+    }
+
+    public SpatialHashGrid getSpatialIndex() {
+        return spatialIndex;
+    }
+
     public void setDebug(boolean debug) {
         this.debug = debug;
     }
@@ -2,14 +2,19 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.utils.Align;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.DimensionsComponent;
 import games.rednblack.editor.renderer.components.label.LabelComponent;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All(LabelComponent.class)
+@Exclude(DespawnedComponent.class)
+@SystemAccess(reads = DimensionsComponent.class, writes = {LabelComponent.class, BitmapFont.class})
 public class LabelSystem extends IteratingSystem {
 	protected ComponentMapper<LabelComponent> labelComponentMapper;
 	protected ComponentMapper<DimensionsComponent> dimensionComponentMapper;
@@ -2,92 +2,208 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
+import com.artemis.annotations.SkipWire;
 import com.artemis.systems.IteratingSystem;
-import com.badlogic.gdx.utils.SnapshotArray;
+import com.badlogic.gdx.utils.IntArray;
 import games.rednblack.editor.renderer.components.CompositeTransformComponent;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.LayerMapComponent;
 import games.rednblack.editor.renderer.components.NodeComponent;
 import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
-import java.util.Comparator;
-
+/**
+ * Keep children of each composite ordered by (layer index, z-index).
+ * Order is recalculated only if a child has been added, its layer changed or it asked to be re-ordered.
+ */
 @All(CompositeTransformComponent.class)
+@Exclude(DespawnedComponent.class)
+@SystemAccess(reads = LayerMapComponent.class, writes = {NodeComponent.class, ZIndexComponent.class, HyperLap2dRenderer.class})
 public class LayerSystem extends IteratingSystem {
 
-    private final Comparator<Integer> comparator = new ZComparator();
-
     protected ComponentMapper<ZIndexComponent> zIndexMapper;
     protected ComponentMapper<LayerMapComponent> layerMapper;
     protected ComponentMapper<NodeComponent> nodeMapper;
 
+    @SkipWire
+    private HyperLap2dRenderer renderer;
+    private boolean orderChanged;
+
+    private final IntArray reOrderQueue = new IntArray();
+
+    //Sort buffers, keys are (layerIndex, zIndex) packed in a long
+    private int[] sortIds = new int[16];
+    private long[] sortKeys = new long[16];
+    private int[] tmpIds = new int[16];
+    private long[] tmpKeys = new long[16];
+
+    @Override
+    protected void initialize() {
+        renderer = getWorld().getSystem(HyperLap2dRenderer.class);
+    }
+
+    @Override
+    protected void begin() {
+        orderChanged = false;
+    }
+
 	@Override
 	protected void process(int entityId) {
         NodeComponent nodeComponent = nodeMapper.get(entityId);
+        boolean dirty = false;
         if (nodeComponent.children.size != nodeComponent.persistentChildren.size()) {
             for(int i = 0; i < nodeComponent.persistentChildren.size(); i ++) {
                 int entityID = nodeComponent.persistentChildren.get(i);
-                if(!nodeComponent.children.contains(entityID, false))
+                if(!nodeComponent.children.contains(entityID)) {
                     nodeComponent.children.add(entityID);
+                    orderChanged = true;
+                    dirty = true;
+                }
             }
         }
         LayerMapComponent layerMapComponent = layerMapper.get(entityId);
-        updateLayers(nodeComponent.children, layerMapComponent);
+        SnapshotIntArray children = nodeComponent.children;
 
-        sort(nodeComponent.children);
+        reOrderQueue.clear();
+        for (int i = 0; i < children.size; i++) {
+            ZIndexComponent zindexComponent = zIndexMapper.get(children.get(i));
+            if (zindexComponent.updateLayerIndex(layerMapComponent)) {
+                //Layer name or layers structure changed, the render list holds the previous layer
+                dirty = true;
+                orderChanged = true;
+            }
+            if (zindexComponent.needReOrder) {
+                dirty = true;
+                if (layerMapComponent.autoIndexing)
+                    reOrderQueue.add(children.get(i));
+            } else if (layerMapComponent.autoIndexing && zindexComponent.getZIndex() != i) {
+                //A sibling has been removed
+                dirty = true;
+            }
+        }
+
+        if (!dirty)
+            return;
 
-        if (layerMapComponent.autoIndexing) {
-            updateZIndices(nodeComponent.children);
+        if (reOrderQueue.size > 0)
+            reOrder(children);
+
+        sort(children);
+
+        for (int i = 0; i < children.size; i++) {
+            ZIndexComponent zindexComponent = zIndexMapper.get(children.get(i));
+            if (layerMapComponent.autoIndexing)
+                zindexComponent.setZIndex(i);
+            zindexComponent.needReOrder = false;
         }
+        nodeComponent.updateIndices();
     }
 
-    private void updateLayers(SnapshotArray<Integer> children, LayerMapComponent layerMapComponent) {
-        for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+    @Override
+    protected void end() {
+        if (orderChanged && renderer != null)
+            renderer.invalidateRenderList();
+    }
+
+    /**
+     * Move children that asked for a new z-index directly to their position
+     */
+    private void reOrder(SnapshotIntArray children) {
+        for (int i = 0; i < reOrderQueue.size; i++) {
+            int entity = reOrderQueue.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-            zindexComponent.layerIndex = getLayerIndexByName(zindexComponent.layerName, layerMapComponent);
-            if (zindexComponent.needReOrder && layerMapComponent.autoIndexing) {
-                if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
-                if (children.size == 1) {
-                    zindexComponent.setZIndex(0);
-                    zindexComponent.needReOrder = false;
-                    return;
-                }
-                if (!children.removeValue(entity, true)) return;
-                if (zindexComponent.getZIndex() >= children.size)
-                    children.add(entity);
-                else
-                    children.insert(zindexComponent.getZIndex(), entity);
-            }
+            if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
+            if (children.size == 1)
+                return;
+            if (!children.removeValue(entity)) continue;
+            orderChanged = true;
+            if (zindexComponent.getZIndex() >= children.size)
+                children.add(entity);
+            else
+                children.insert(zindexComponent.getZIndex(), entity);
         }
     }
 
-    private void updateZIndices(SnapshotArray<Integer> children) {
-        for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+    /**
+     * Stable sort of children by (layer index, z-index), nearly sorted arrays cost O(n)
+     */
+    private void sort(SnapshotIntArray children) {
+        int size = children.size;
+        ensureSortCapacity(size);
+        for (int i = 0; i < size; i++) {
+            int entity = children.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-            zindexComponent.setZIndex(i);
-            zindexComponent.needReOrder = false;
+            sortIds[i] = entity;
+            sortKeys[i] = ((long) zindexComponent.layerIndex << 32) | ((long) zindexComponent.getZIndex() - Integer.MIN_VALUE);
         }
-    }
 
-    private void sort(SnapshotArray<Integer> children) {
-        children.sort(comparator);
+        mergeSort(0, size);
+
+        for (int i = 0; i < size; i++) {
+            if (children.get(i) != sortIds[i]) {
+                children.set(i, sortIds[i]);
+                orderChanged = true;
+            }
+        }
     }
 
-    private int getLayerIndexByName(String layerName, LayerMapComponent layerMapComponent) {
-        if (layerMapComponent == null) {
-            return 0;
+    private void mergeSort(int from, int to) {
+        if (to - from <= 16) {
+            insertionSort(from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(from, mid);
+        mergeSort(mid, to);
+        if (sortKeys[mid - 1] <= sortKeys[mid])
+            return;
+
+        int length = mid - from;
+        System.arraycopy(sortIds, from, tmpIds, 0, length);
+        System.arraycopy(sortKeys, from, tmpKeys, 0, length);
+
+        int left = 0, right = mid, dest = from;
+        while (left < length && right < to) {
+            if (sortKeys[right] < tmpKeys[left]) {
+                sortIds[dest] = sortIds[right];
+                sortKeys[dest++] = sortKeys[right++];
+            } else {
+                sortIds[dest] = tmpIds[left];
+                sortKeys[dest++] = tmpKeys[left++];
+            }
+        }
+        while (left < length) {
+            sortIds[dest] = tmpIds[left];
+            sortKeys[dest++] = tmpKeys[left++];
         }
-        return layerMapComponent.getIndexByName(layerName);
     }
 
-    private class ZComparator implements Comparator<Integer> {
-        @Override
-        public int compare(Integer e1, Integer e2) {
-            ZIndexComponent zIndexComponent1 = zIndexMapper.get(e1);
-            ZIndexComponent zIndexComponent2 = zIndexMapper.get(e2);
-            return zIndexComponent1.layerIndex == zIndexComponent2.layerIndex ? Integer.signum(zIndexComponent1.getZIndex() - zIndexComponent2.getZIndex()) : Integer.signum(zIndexComponent1.layerIndex - zIndexComponent2.layerIndex);
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int id = sortIds[i];
+            long key = sortKeys[i];
+            int j = i - 1;
+            while (j >= from && sortKeys[j] > key) {
+                sortIds[j + 1] = sortIds[j];
+                sortKeys[j + 1] = sortKeys[j];
+                j--;
+            }
+            sortIds[j + 1] = id;
+            sortKeys[j + 1] = key;
         }
     }
 
+    private void ensureSortCapacity(int size) {
+        if (sortIds.length >= size) return;
+
+        int capacity = Math.max(size, sortIds.length * 2);
+        sortIds = new int[capacity];
+        sortKeys = new long[capacity];
+        tmpIds = new int[capacity];
+        tmpKeys = new long[capacity];
+    }
 }
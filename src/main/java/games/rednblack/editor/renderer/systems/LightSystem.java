@@ -2,12 +2,15 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.One;
+import com.artemis.annotations.Exclude;
+import com.artemis.annotations.SkipWire;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import games.rednblack.editor.renderer.box2dLight.ConeLight;
 import games.rednblack.editor.renderer.box2dLight.Light;
 import games.rednblack.editor.renderer.box2dLight.RayHandler;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.ParentNodeComponent;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 import games.rednblack.editor.renderer.components.TransformComponent;
@@ -17,6 +20,7 @@ import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
 @One({LightObjectComponent.class, LightBodyComponent.class})
+@Exclude(DespawnedComponent.class)
 public class LightSystem extends IteratingSystem {
     protected ComponentMapper<LightObjectComponent> lightObjectComponentMapper;
     protected ComponentMapper<TransformComponent> transformComponentMapper;
@@ -25,10 +29,19 @@ public class LightSystem extends IteratingSystem {
     protected ComponentMapper<PolygonShapeComponent> polygonComponentMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyComponentMapper;
 
+    //Optional, scene coordinates are calculated walking up the hierarchy without it
+    @SkipWire
+    protected WorldTransformSystem worldTransformSystem;
+
     private RayHandler rayHandler;
 
     private final Vector2 localCoord = new Vector2();
 
+    @Override
+    protected void initialize() {
+        worldTransformSystem = getWorld().getSystem(WorldTransformSystem.class);
+    }
+
     @Override
     protected void process(int entityId) {
 
@@ -46,24 +59,8 @@ public class LightSystem extends IteratingSystem {
             light = lightObjectComponent.rebuildRays(rayHandler);
         }
 
-        TransformMathUtils.localToSceneCoordinates(entityId, localCoord.set(0, 0), transformComponentMapper, parentNodeComponentMapper);
-        ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entityId);
-
-        TransformComponent transform = transformComponentMapper.get(entityId);
-        float relativeRotation = transform.rotation;
-
-        int parentEntity = parentNodeComponent.parentEntity;
-        TransformComponent parentTransformComponent;
-
-        while (parentEntity != -1) {
-            parentTransformComponent = transformComponentMapper.get(parentEntity);
-            relativeRotation += parentTransformComponent.rotation;
-            parentNodeComponent = parentNodeComponentMapper.get(parentEntity);
-            if (parentNodeComponent == null) {
-                break;
-            }
-            parentEntity = parentNodeComponent.parentEntity;
-        }
+        localToSceneCoordinates(entityId, localCoord.set(0, 0));
+        float relativeRotation = getSceneRotation(entityId);
 
         light.setPosition(localCoord.x, localCoord.y);
         light.setSoftnessLength(lightObjectComponent.softnessLength);
@@ -87,6 +84,28 @@ public class LightSystem extends IteratingSystem {
         }
     }
 
+    private Vector2 localToSceneCoordinates(int entityId, Vector2 localCoords) {
+        if (worldTransformSystem != null)
+            return worldTransformSystem.localToSceneCoordinates(entityId, localCoords);
+        return TransformMathUtils.localToSceneCoordinates(entityId, localCoords, transformComponentMapper, parentNodeComponentMapper);
+    }
+
+    private float getSceneRotation(int entityId) {
+        if (worldTransformSystem != null)
+            return worldTransformSystem.getSceneRotation(entityId);
+
+        float rotation = transformComponentMapper.get(entityId).rotation;
+        ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entityId);
+        while (parentNodeComponent != null && parentNodeComponent.parentEntity != -1) {
+            TransformComponent parentTransformComponent = transformComponentMapper.get(parentNodeComponent.parentEntity);
+            if (parentTransformComponent == null)
+                break;
+            rotation += parentTransformComponent.rotation;
+            parentNodeComponent = parentNodeComponentMapper.get(parentNodeComponent.parentEntity);
+        }
+        return rotation;
+    }
+
     private void processLightBody(int entityId) {
         LightBodyComponent lightBodyComponent = lightBodyComponentMapper.get(entityId);
         PolygonShapeComponent polygonShapeComponent = polygonComponentMapper.get(entityId);
@@ -112,7 +131,7 @@ public class LightSystem extends IteratingSystem {
         lightBodyComponent.executeRefresh(entityId);
 
         if (lightBodyComponent.lightObject != null) {
-            TransformMathUtils.localToSceneCoordinates(entityId, localCoord.set(0, 0), transformComponentMapper, parentNodeComponentMapper);
+            localToSceneCoordinates(entityId, localCoord.set(0, 0));
 
             lightBodyComponent.lightObject.setPosition(localCoord.x, localCoord.y);
             lightBodyComponent.lightObject.setSoftnessLength(lightBodyComponent.softnessLength);
@@ -2,11 +2,16 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.particle.ParticleComponent;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All(ParticleComponent.class)
+@Exclude(DespawnedComponent.class)
+@SystemAccess(writes = ParticleComponent.class)
 public class ParticleSystem extends IteratingSystem {
 
 	protected ComponentMapper<ParticleComponent> particleComponentMapper;
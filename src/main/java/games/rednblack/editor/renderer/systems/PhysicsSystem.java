@@ -3,10 +3,12 @@ package games.rednblack.editor.renderer.systems;
 import com.artemis.BaseEntitySystem;
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.utils.IntBag;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.shape.CircleShapeComponent;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 import games.rednblack.editor.renderer.components.ScriptComponent;
@@ -18,6 +20,7 @@ import games.rednblack.editor.renderer.scripts.IScript;
 import games.rednblack.editor.renderer.systems.strategy.InterpolationSystem;
 
 @All(PhysicsBodyComponent.class)
+@Exclude(DespawnedComponent.class)
 public class PhysicsSystem extends BaseEntitySystem implements ContactListener, InterpolationSystem {
 
     public static int VELOCITY_ITERATIONS = 8;
@@ -97,6 +100,7 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
         float sn = (1.0f - alpha) * MathUtils.sinDeg(angle) + alpha * MathUtils.sin(bodyAngle);
 
         transformComponent.rotation = MathUtils.atan2(sn, cs) * MathUtils.radiansToDegrees;
+        transformComponent.markDirty();
     }
 
     protected void process(int entity) {
@@ -0,0 +1,335 @@
+package games.rednblack.editor.renderer.systems;
+
+import com.artemis.Aspect;
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.ViewPortComponent;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+import games.rednblack.editor.renderer.factory.EntityFactory;
+
+/**
+ * Streaming of big scenes: root's items are partitioned in square chunks of {@link #setChunkSize(float)} world units
+ * by their position, and entities are created only for chunks around the camera.
+ * Chunks far from the camera are retired: their entities are saved back to VOs with
+ * {@link MainItemVO#loadFromEntity(int, com.artemis.World, EntityFactory)} and deleted, so moved items and
+ * runtime changes stored in components survive until the chunk is loaded again.
+ * Use a {@link ChunkListener} to save and restore state that isn't in components, like scripts.
+ * <p>
+ * Chunks are loaded when they are within {@link #setLoadDistance(float)} from the view and retired when they are
+ * farther than {@link #setUnloadDistance(float)}, the gap avoids loading and retiring the same chunk on the border.
+ * A composite belongs to the chunk of its position with its whole subtree.
+ * <p>
+ * Items are assigned to chunks by their position only, an item that extends over other chunks is loaded and
+ * retired with the chunk of its origin. To keep big items from popping in or out while visible, load and unload
+ * distances are padded by the size of the biggest item seen so far, measured from {@link DimensionsComponent}
+ * when entities are created or retired: items bigger than any loaded before can still pop in late once.
+ * <p>
+ * Entities deleted by the game while their chunk is loaded are forgotten, retiring the chunk won't bring them back.
+ * Entities that can't be saved back to a VO aren't deleted: they stay in the world and aren't streamed anymore.
+ * Enabled with {@link games.rednblack.editor.renderer.SceneConfiguration#setStreamingEnabled(boolean)},
+ * {@link games.rednblack.editor.renderer.SceneLoader#loadScene(String)} then hands over root's items instead of creating them.
+ */
+public class SceneStreamingSystem extends BaseSystem {
+
+    public interface ChunkListener {
+        /**
+         * Called after entities of the chunk have been created
+         */
+        void chunkLoaded(Chunk chunk);
+
+        /**
+         * Called before entities of the chunk are saved to VOs and deleted
+         */
+        void chunkRetiring(Chunk chunk);
+    }
+
+    public static class Chunk {
+        public final int x, y;
+        /** Items of the chunk, up to date with entities state only while the chunk is retired */
+        public final Array<MainItemVO> items = new Array<>();
+        /** Entities of the chunk items while loaded */
+        public final IntArray entities = new IntArray();
+        private boolean loaded = false;
+
+        Chunk(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public boolean isLoaded() {
+            return loaded;
+        }
+    }
+
+    protected ComponentMapper<ViewPortComponent> viewPortMapper;
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<MainItemComponent> mainItemMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+
+    private EntityFactory entityFactory;
+    private ChunkListener listener;
+
+    private float chunkSize = 1024;
+    private float loadDistance = 256;
+    private float unloadDistance = 512;
+    private int maxChunksPerFrame = 2;
+
+    private int root = -1;
+    private boolean fillView = false;
+    private final LongMap<Chunk> chunks = new LongMap<>();
+    private final Array<Chunk> loadedChunks = new Array<>();
+    //Chunk owning each entity of loaded chunks, entity ids are reused after deletion
+    private final IntMap<Chunk> entityChunks = new IntMap<>();
+    private float itemPadding = 0;
+    private final Rectangle view = new Rectangle();
+
+    @Override
+    protected void initialize() {
+        getWorld().getAspectSubscriptionManager()
+                .get(Aspect.all(MainItemComponent.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        int[] ids = entities.getData();
+                        for (int i = 0, s = entities.size(); s > i; i++) {
+                            Chunk chunk = entityChunks.remove(ids[i]);
+                            if (chunk != null)
+                                chunk.entities.removeValue(ids[i]);
+                        }
+                    }
+                });
+    }
+
+    public void setEntityFactory(EntityFactory entityFactory) {
+        this.entityFactory = entityFactory;
+    }
+
+    public void setChunkListener(ChunkListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Side of chunks in world units, must be set before loading the scene. Default 1024
+     */
+    public void setChunkSize(float chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setLoadDistance(float loadDistance) {
+        this.loadDistance = loadDistance;
+    }
+
+    public void setUnloadDistance(float unloadDistance) {
+        this.unloadDistance = unloadDistance;
+    }
+
+    /**
+     * Limit chunks loaded in a single frame to spread the cost of fast camera moves. Default 2
+     */
+    public void setMaxChunksPerFrame(int maxChunksPerFrame) {
+        this.maxChunksPerFrame = maxChunksPerFrame;
+    }
+
+    /**
+     * Partition the items of the root composite in chunks, no entity is created until the next process.
+     * Called by SceneLoader when a scene is loaded.
+     */
+    public void setScene(int root, CompositeItemVO vo) {
+        this.root = root;
+        chunks.clear();
+        loadedChunks.clear();
+        entityChunks.clear();
+        itemPadding = 0;
+        fillView = true;
+
+        for (Array<MainItemVO> items : vo.content.values()) {
+            for (MainItemVO item : items) {
+                getChunk(chunkCoordinate(item.x), chunkCoordinate(item.y)).items.add(item);
+            }
+        }
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return root != -1 && entityFactory != null;
+    }
+
+    @Override
+    protected void processSystem() {
+        ViewPortComponent viewPortComponent = viewPortMapper.get(root);
+        if (viewPortComponent == null) {
+            root = -1;
+            return;
+        }
+
+        Camera camera = viewPortComponent.viewPort.getCamera();
+        float zoom = camera instanceof OrthographicCamera ? ((OrthographicCamera) camera).zoom : 1;
+        view.width = camera.viewportWidth * zoom;
+        view.height = camera.viewportHeight * zoom;
+        view.x = camera.position.x - view.width * 0.5f;
+        view.y = camera.position.y - view.height * 0.5f;
+
+        for (int i = loadedChunks.size - 1; i >= 0; i--) {
+            Chunk chunk = loadedChunks.get(i);
+            if (!isInRange(chunk, unloadDistance + itemPadding))
+                retire(chunk);
+        }
+
+        //Chunks in view right after loading the scene are loaded all at once
+        int maxChunks = fillView ? Integer.MAX_VALUE : maxChunksPerFrame;
+        fillView = false;
+
+        int loaded = 0;
+        float distance = loadDistance + itemPadding;
+        int minX = chunkCoordinate(view.x - distance);
+        int maxX = chunkCoordinate(view.x + view.width + distance);
+        int minY = chunkCoordinate(view.y - distance);
+        int maxY = chunkCoordinate(view.y + view.height + distance);
+        for (int x = minX; x <= maxX && loaded < maxChunks; x++) {
+            for (int y = minY; y <= maxY && loaded < maxChunks; y++) {
+                Chunk chunk = chunks.get(key(x, y));
+                if (chunk != null && !chunk.loaded && chunk.items.size > 0) {
+                    load(chunk);
+                    loaded++;
+                }
+            }
+        }
+    }
+
+    private void load(Chunk chunk) {
+        for (MainItemVO item : chunk.items) {
+            int entity = entityFactory.createEntity(root, item);
+            if (item instanceof CompositeItemVO)
+                entityFactory.initAllChildren(entity, (CompositeItemVO) item);
+            chunk.entities.add(entity);
+            entityChunks.put(entity, chunk);
+            measure(entity);
+        }
+        chunk.loaded = true;
+        loadedChunks.add(chunk);
+
+        if (listener != null)
+            listener.chunkLoaded(chunk);
+    }
+
+    private void retire(Chunk chunk) {
+        if (listener != null)
+            listener.chunkRetiring(chunk);
+
+        chunk.items.clear();
+        for (int i = 0; i < chunk.entities.size; i++) {
+            int entity = chunk.entities.get(i);
+            if (!getWorld().getEntityManager().isActive(entity))
+                continue;
+
+            //Items that moved to another loaded chunk keep their entity
+            TransformComponent transform = transformMapper.get(entity);
+            Chunk current = getChunk(chunkCoordinate(transform.x), chunkCoordinate(transform.y));
+            measure(entity);
+            if (current != chunk && current.loaded) {
+                current.entities.add(entity);
+                entityChunks.put(entity, current);
+                continue;
+            }
+
+            entityChunks.remove(entity);
+            MainItemVO item = saveEntity(entity);
+            if (item == null)
+                continue;
+            current.items.add(item);
+            getWorld().delete(entity);
+        }
+        chunk.entities.clear();
+        chunk.loaded = false;
+        loadedChunks.removeValue(chunk, true);
+    }
+
+    private MainItemVO saveEntity(int entity) {
+        try {
+            MainItemVO item = entityFactory.instantiateEmptyVO(mainItemMapper.get(entity).entityType);
+            item.loadFromEntity(entity, getWorld(), entityFactory);
+            return item;
+        } catch (ReflectionException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Grow the padding of load and unload distances to cover the entity, whatever its origin and rotation
+     */
+    private void measure(int entity) {
+        DimensionsComponent dimensions = dimensionsMapper.get(entity);
+        TransformComponent transform = transformMapper.get(entity);
+        if (dimensions == null || transform == null) return;
+
+        float width = dimensions.width * transform.scaleX;
+        float height = dimensions.height * transform.scaleY;
+        itemPadding = Math.max(itemPadding, 2 * (float) Math.sqrt(width * width + height * height));
+    }
+
+    private boolean isInRange(Chunk chunk, float distance) {
+        float x = chunk.x * chunkSize;
+        float y = chunk.y * chunkSize;
+        return x < view.x + view.width + distance && x + chunkSize > view.x - distance
+                && y < view.y + view.height + distance && y + chunkSize > view.y - distance;
+    }
+
+    private Chunk getChunk(int x, int y) {
+        long key = key(x, y);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new Chunk(x, y);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private int chunkCoordinate(float value) {
+        return (int) Math.floor(value / chunkSize);
+    }
+
+    private static long key(int x, int y) {
+        return (long) x << 32 | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return chunk at world coordinates, null if no item has ever been there
+     */
+    public Chunk getChunkAt(float x, float y) {
+        return chunks.get(key(chunkCoordinate(x), chunkCoordinate(y)));
+    }
+
+    public Array<Chunk> getLoadedChunks() {
+        return loadedChunks;
+    }
+
+    public int getChunkCount() {
+        return chunks.size;
+    }
+
+    /**
+     * @return padding added to load and unload distances, the biggest item size seen so far
+     */
+    public float getItemPadding() {
+        return itemPadding;
+    }
+}
@@ -2,7 +2,9 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.ScriptComponent;
 import games.rednblack.editor.renderer.scripts.BasicScript;
 import games.rednblack.editor.renderer.scripts.IScript;
@@ -12,6 +14,7 @@ import games.rednblack.editor.renderer.systems.strategy.RendererSystem;
  * Created by azakhary on 6/19/2015.
  */
 @All(ScriptComponent.class)
+@Exclude(DespawnedComponent.class)
 public class ScriptSystem extends IteratingSystem implements RendererSystem {
 
     protected ComponentMapper<ScriptComponent> scriptComponentMapper;
@@ -2,12 +2,17 @@ package games.rednblack.editor.renderer.systems;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.components.TextureRegionComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import games.rednblack.editor.renderer.systems.strategy.SystemAccess;
 
 @All(SpriteAnimationComponent.class)
+@Exclude(DespawnedComponent.class)
+@SystemAccess(reads = SpriteAnimationComponent.class, writes = {TextureRegionComponent.class, SpriteAnimationStateComponent.class})
 public class SpriteAnimationSystem extends IteratingSystem {
     protected ComponentMapper<TextureRegionComponent> tm;
     protected ComponentMapper<SpriteAnimationStateComponent> sm;
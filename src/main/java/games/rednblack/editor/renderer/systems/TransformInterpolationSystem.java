@@ -0,0 +1,133 @@
+package games.rednblack.editor.renderer.systems;
+
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
+import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
+import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
+import games.rednblack.editor.renderer.systems.strategy.InterpolationSystem;
+
+/**
+ * Smooth rendering of entities moved by actions, scripts or any other logic when the display refresh rate
+ * is higher than the fixed logic step.
+ * Position, scale and rotation of each entity are snapshotted at every logic step, {@link HyperLap2dRenderer}
+ * then draws them interpolated between the previous and the current step using the accumulator alpha.
+ * Interpolated values are swapped in only while the renderer draws and restored right after,
+ * so systems and scripts always see the logical transform.
+ * Entities with a {@link PhysicsBodyComponent} are excluded, they are already interpolated by {@link PhysicsSystem}.
+ * <p>
+ * Must be processed before any system moving entities, see {@link games.rednblack.editor.renderer.SceneConfiguration#setTransformInterpolationEnabled(boolean)}.
+ */
+@All(TransformComponent.class)
+@Exclude({PhysicsBodyComponent.class, DespawnedComponent.class})
+public class TransformInterpolationSystem extends IteratingSystem implements InterpolationSystem {
+    private static final int STRIDE = 5;
+
+    protected ComponentMapper<TransformComponent> transformMapper;
+
+    private float alpha = 1f;
+
+    //x, y, scaleX, scaleY, rotation of each entity, indexed by entity id
+    private float[] previous = new float[STRIDE * 64];
+    private float[] logical = new float[STRIDE * 64];
+    private final IntArray swapped = new IntArray();
+
+    @Override
+    protected void inserted(int entityId) {
+        snap(entityId);
+    }
+
+    @Override
+    protected void process(int entityId) {
+        store(transformMapper.get(entityId), previous, entityId * STRIDE);
+    }
+
+    @Override
+    public void interpolate(float alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * Write interpolated values in the transforms that changed since the previous step, called by the renderer
+     */
+    public void apply() {
+        restore();
+
+        IntBag entities = subscription.getEntities();
+        int[] ids = entities.getData();
+        for (int i = 0, s = entities.size(); i < s; i++) {
+            int entity = ids[i];
+            int index = entity * STRIDE;
+            TransformComponent transform = transformMapper.get(entity);
+            if (transform.x == previous[index] && transform.y == previous[index + 1]
+                    && transform.scaleX == previous[index + 2] && transform.scaleY == previous[index + 3]
+                    && transform.rotation == previous[index + 4])
+                continue;
+
+            store(transform, logical, index);
+            swapped.add(entity);
+
+            transform.x = previous[index] + (transform.x - previous[index]) * alpha;
+            transform.y = previous[index + 1] + (transform.y - previous[index + 1]) * alpha;
+            transform.scaleX = previous[index + 2] + (transform.scaleX - previous[index + 2]) * alpha;
+            transform.scaleY = previous[index + 3] + (transform.scaleY - previous[index + 3]) * alpha;
+            transform.rotation = previous[index + 4] + (transform.rotation - previous[index + 4]) * alpha;
+        }
+    }
+
+    /**
+     * Put back logical values in the transforms changed by {@link #apply()}, called by the renderer
+     */
+    public void restore() {
+        int[] items = swapped.items;
+        for (int i = 0; i < swapped.size; i++) {
+            int entity = items[i];
+            int index = entity * STRIDE;
+            TransformComponent transform = transformMapper.get(entity);
+            if (transform == null)
+                continue;
+            transform.x = logical[index];
+            transform.y = logical[index + 1];
+            transform.scaleX = logical[index + 2];
+            transform.scaleY = logical[index + 3];
+            transform.rotation = logical[index + 4];
+        }
+        swapped.clear();
+    }
+
+    /**
+     * Discard the previous state of the entity, so it is drawn at its current transform without interpolation.
+     * Useful after teleporting an entity.
+     */
+    public void snap(int entity) {
+        TransformComponent transform = transformMapper.get(entity);
+        if (transform != null)
+            store(transform, previous, entity * STRIDE);
+    }
+
+    private void store(TransformComponent transform, float[] target, int index) {
+        if (index + STRIDE > target.length) {
+            boolean isPrevious = target == previous;
+            int capacity = Math.max(index + STRIDE, target.length * 2);
+            previous = grow(previous, capacity);
+            logical = grow(logical, capacity);
+            target = isPrevious ? previous : logical;
+        }
+        target[index] = transform.x;
+        target[index + 1] = transform.y;
+        target[index + 2] = transform.scaleX;
+        target[index + 3] = transform.scaleY;
+        target[index + 4] = transform.rotation;
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        float[] newArray = new float[capacity];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+}
@@ -0,0 +1,158 @@
+package games.rednblack.editor.renderer.systems;
+
+import com.artemis.ComponentMapper;
+import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
+import com.artemis.systems.IteratingSystem;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Vector2;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.ParentNodeComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.ViewPortComponent;
+import games.rednblack.editor.renderer.utils.TransformMathUtils;
+
+/**
+ * Compute once per step the transform from entity's coordinates to scene coordinates and cache it
+ * in {@link TransformComponent#sceneTransform}. Parents are always updated before their children and
+ * the matrix is recalculated only when the entity or one of its ascendants changed.
+ * <p>
+ * Changes are tracked by version counters bumped by {@link TransformComponent} and {@link DimensionsComponent} setters,
+ * with {@link #setDetectDirectWrites(boolean)} fields of every entity are also compared each step to catch
+ * direct writes not followed by markDirty().
+ */
+@All(TransformComponent.class)
+@Exclude(DespawnedComponent.class)
+public class WorldTransformSystem extends IteratingSystem {
+
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
+    protected ComponentMapper<ViewPortComponent> viewPortMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+
+    private final Affine2 tmpTransform = new Affine2();
+
+    private int frame = 0;
+    private boolean detectDirectWrites = false;
+
+    @Override
+    protected void begin() {
+        frame++;
+    }
+
+    @Override
+    protected void process(int entity) {
+        update(entity, true);
+
+        if (detectDirectWrites) {
+            DimensionsComponent dimensions = dimensionsMapper.get(entity);
+            if (dimensions != null)
+                dimensions.updateVersion();
+        }
+    }
+
+    /**
+     * Compare transform and dimensions fields of every entity each step, needed only if fields are written
+     * directly without calling markDirty(). Disabled by default
+     */
+    public void setDetectDirectWrites(boolean detectDirectWrites) {
+        this.detectDirectWrites = detectDirectWrites;
+    }
+
+    public boolean isDetectingDirectWrites() {
+        return detectDirectWrites;
+    }
+
+    /**
+     * Get the up to date transform from entity's coordinates to scene coordinates.
+     * Can be safely used at any time, only version counters of the ascendants are checked
+     * if nothing changed since last update.
+     */
+    public Affine2 getSceneTransform(int entity) {
+        return update(entity, false).sceneTransform;
+    }
+
+    /**
+     * Get the sum of the rotations of the entity and all its ascendants.
+     */
+    public float getSceneRotation(int entity) {
+        return update(entity, false).sceneRotation;
+    }
+
+    /**
+     * Transforms the specified point in the entity's coordinates to be in the scene's coordinates.
+     */
+    public Vector2 localToSceneCoordinates(int entity, Vector2 localCoords) {
+        getSceneTransform(entity).applyTo(localCoords);
+        return localCoords;
+    }
+
+    /**
+     * Transforms the specified point in the scene's coordinates to the entity's local coordinate system.
+     */
+    public Vector2 sceneToLocalCoordinates(int entity, Vector2 sceneCoords) {
+        Affine2 sceneTransform = getSceneTransform(entity);
+        if (sceneTransform.det() == 0)
+            return TransformMathUtils.sceneToLocalCoordinates(entity, sceneCoords, transformMapper, parentNodeMapper);
+
+        tmpTransform.set(sceneTransform).inv().applyTo(sceneCoords);
+        return sceneCoords;
+    }
+
+    /**
+     * Transforms the specified point in screen coordinates to the entity's local coordinate system.
+     */
+    public Vector2 globalToLocalCoordinates(int entity, Vector2 screenCoords) {
+        int parentEntity = entity;
+        while (parentEntity != -1) {
+            ParentNodeComponent parentNode = parentNodeMapper.get(parentEntity);
+            if (parentNode == null)
+                break;
+            parentEntity = parentNode.parentEntity;
+
+            ViewPortComponent viewPortComponent = viewPortMapper.get(parentEntity);
+            if (viewPortComponent != null) {
+                viewPortComponent.viewPort.unproject(screenCoords);
+                break;
+            }
+        }
+        return sceneToLocalCoordinates(entity, screenCoords);
+    }
+
+    private TransformComponent update(int entity, boolean useFrameCache) {
+        TransformComponent transform = transformMapper.get(entity);
+        if (useFrameCache) {
+            if (transform.sceneFrame == frame)
+                return transform;
+            transform.sceneFrame = frame;
+        }
+
+        int parentEntity = -1;
+        TransformComponent parentTransform = null;
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        if (parentNode != null && parentNode.parentEntity != -1 && transformMapper.has(parentNode.parentEntity)) {
+            parentEntity = parentNode.parentEntity;
+            parentTransform = update(parentEntity, useFrameCache);
+        }
+
+        int localVersion = detectDirectWrites ? transform.updateVersion() : transform.getVersion();
+        int parentVersion = parentTransform != null ? parentTransform.sceneVersion : 0;
+        if (localVersion == transform.sceneLocalVersion && parentEntity == transform.sceneParent
+                && parentVersion == transform.sceneParentVersion)
+            return transform;
+
+        TransformMathUtils.localTransform(transform, transform.sceneTransform);
+        transform.sceneRotation = transform.rotation;
+        if (parentTransform != null) {
+            transform.sceneTransform.preMul(parentTransform.sceneTransform);
+            transform.sceneRotation += parentTransform.sceneRotation;
+        }
+
+        transform.sceneLocalVersion = localVersion;
+        transform.sceneParent = parentEntity;
+        transform.sceneParentVersion = parentVersion;
+        transform.sceneVersion++;
+        return transform;
+    }
+}
@@ -2,9 +2,11 @@ package games.rednblack.editor.renderer.systems.action;
 
 import com.artemis.ComponentMapper;
 import com.artemis.annotations.All;
+import com.artemis.annotations.Exclude;
 import com.artemis.systems.IteratingSystem;
 import com.badlogic.gdx.utils.Array;
 import games.rednblack.editor.renderer.components.ActionComponent;
+import games.rednblack.editor.renderer.components.DespawnedComponent;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
 import games.rednblack.editor.renderer.systems.action.logic.ActionLogic;
 
@@ -12,6 +14,7 @@ import games.rednblack.editor.renderer.systems.action.logic.ActionLogic;
  * Created by ZeppLondon on 10/13/2015.
  */
 @All(ActionComponent.class)
+@Exclude(DespawnedComponent.class)
 public class ActionSystem extends IteratingSystem {
     protected ComponentMapper<ActionComponent> actionMapper;
 
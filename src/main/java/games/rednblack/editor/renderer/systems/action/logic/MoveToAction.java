@@ -18,6 +18,7 @@ public class MoveToAction<T extends MoveToData> extends TemporalAction<T> {
 
         transformComponent.x = x;
         transformComponent.y = y;
+        transformComponent.markDirty();
     }
 
     @Override
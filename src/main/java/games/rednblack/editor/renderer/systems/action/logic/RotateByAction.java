@@ -14,5 +14,6 @@ public class RotateByAction<T extends RotateByData> extends RelativeTemporalActi
         if (transformComponent == null) return;
 
         transformComponent.rotation += actionData.amount * percentDelta;
+        transformComponent.markDirty();
     }
 }
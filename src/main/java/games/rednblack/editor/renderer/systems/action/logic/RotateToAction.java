@@ -14,6 +14,7 @@ public class RotateToAction<T extends RotateToData> extends TemporalAction<T> {
         if (transformComponent == null) return;
 
         transformComponent.rotation = (actionData.start + (actionData.end - actionData.start) * percent);
+        transformComponent.markDirty();
     }
 
     @Override
@@ -15,5 +15,6 @@ public class ScaleByAction<T extends ScaleByData> extends RelativeTemporalAction
 
         transformComponent.scaleX += actionData.amountX * percent;
         transformComponent.scaleY += actionData.amountY * percent;
+        transformComponent.markDirty();
     }
 }
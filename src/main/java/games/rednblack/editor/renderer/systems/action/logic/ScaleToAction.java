@@ -15,6 +15,7 @@ public class ScaleToAction<T extends ScaleToData> extends TemporalAction<T> {
 
         transformComponent.scaleX = actionData.startX + (actionData.endX - actionData.startX) * percent;
         transformComponent.scaleY = actionData.startY + (actionData.endY - actionData.startY) * percent;
+        transformComponent.markDirty();
     }
 
     @Override
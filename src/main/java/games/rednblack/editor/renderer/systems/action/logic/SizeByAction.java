@@ -15,5 +15,6 @@ public class SizeByAction<T extends SizeByData> extends RelativeTemporalAction<T
 
         dimensionsComponent.width += actionData.amountWidth * percentDelta;
         dimensionsComponent.height += actionData.amountHeight * percentDelta;
+        dimensionsComponent.markDirty();
     }
 }
@@ -15,6 +15,7 @@ public class SizeToAction <T extends SizeToData> extends TemporalAction<T>  {
 
         dimensionsComponent.width = actionData.startWidth + (actionData.endHeight - actionData.startWidth) * percent;
         dimensionsComponent.height = actionData.startHeight + (actionData.endHeight - actionData.startHeight) * percent;
+        dimensionsComponent.markDirty();
     }
 
     @Override
@@ -1,9 +1,14 @@
 package games.rednblack.editor.renderer.systems.render;
 
+import com.artemis.Aspect;
+import com.artemis.AspectSubscriptionManager;
 import com.artemis.ComponentMapper;
+import com.artemis.EntitySubscription;
 import com.artemis.World;
 import com.artemis.annotations.All;
+import com.artemis.annotations.SkipWire;
 import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.graphics.g2d.Batch;
@@ -12,6 +17,10 @@ import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.SnapshotArray;
 import com.badlogic.gdx.utils.viewport.Viewport;
@@ -19,11 +28,16 @@ import games.rednblack.editor.renderer.box2dLight.RayHandler;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.normal.NormalMapRendering;
+import games.rednblack.editor.renderer.data.LayerItemVO;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.data.ShaderUniformVO;
+import games.rednblack.editor.renderer.systems.TransformInterpolationSystem;
 import games.rednblack.editor.renderer.systems.render.logic.DrawableLogic;
 import games.rednblack.editor.renderer.systems.render.logic.DrawableLogicMapper;
 import games.rednblack.editor.renderer.systems.strategy.RendererSystem;
+import games.rednblack.editor.renderer.utils.FrameStats;
+import games.rednblack.editor.renderer.utils.FrameStatsRecorder;
+import games.rednblack.editor.renderer.utils.PolygonSpriteBatch;
 
 import java.util.Stack;
 
@@ -44,6 +58,18 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
     protected ComponentMapper<TextureRegionComponent> textureRegionComponentMapper;
 
     protected DrawableLogicMapper drawableLogicMapper;
+    private final StaticBatchCache staticBatchCache;
+
+    private boolean textureSorting = false;
+    private final TextureSorter textureSorter = new TextureSorter();
+    private final IntArray sortBuffer = new IntArray();
+    private final IntArray sortTags = new IntArray();
+
+    @SkipWire
+    private TransformInterpolationSystem transformInterpolation;
+
+    private FrameStatsRecorder frameStats;
+    private int drawnEntities, culledEntities, fboSwitches;
     private RayHandler rayHandler;
     private Camera camera;
     private Viewport viewport;
@@ -75,9 +101,31 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
 
     private final SnapshotArray<Integer> screenReadingEntities = new SnapshotArray<>(true, 1, Integer.class);
 
+    private boolean retainedMode = false;
+    private boolean renderListDirty = true;
+    private int renderListRoot = -1;
+    private final Array<RenderCommand> renderCommands = new Array<>(true, 128, RenderCommand.class);
+    private final Pool<RenderCommand> renderCommandPool = new Pool<RenderCommand>() {
+        @Override
+        protected RenderCommand newObject() {
+            return new RenderCommand();
+        }
+    };
+
+    //Composite stack used while replaying the render list
+    private final FloatArray frameAlpha = new FloatArray();
+    private final FloatArray frameOffsetX = new FloatArray();
+    private final FloatArray frameOffsetY = new FloatArray();
+    private final FloatArray frameRestoreX = new FloatArray();
+    private final FloatArray frameRestoreY = new FloatArray();
+    private final BooleanArray frameOffsetChildren = new BooleanArray();
+    private final BooleanArray frameApplied = new BooleanArray();
+    private final BooleanArray frameScissors = new BooleanArray();
+
     public HyperLap2dRenderer(Batch batch) {
         this.batch = batch;
         drawableLogicMapper = new DrawableLogicMapper();
+        staticBatchCache = new StaticBatchCache(drawableLogicMapper);
 
         frameBufferManager = new FrameBufferManager();
         frameBufferManager.createFBO("main", Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight(), true);
@@ -92,13 +140,77 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
         invScreenHeight = 1f / screenCamera.viewportHeight;
     }
 
+    @Override
+    protected void initialize() {
+        transformInterpolation = getWorld().getSystem(TransformInterpolationSystem.class);
+
+        EntitySubscription.SubscriptionListener invalidateListener = new EntitySubscription.SubscriptionListener() {
+            @Override
+            public void inserted(IntBag entities) {
+                invalidateRenderList();
+            }
+
+            @Override
+            public void removed(IntBag entities) {
+                invalidateRenderList();
+            }
+        };
+
+        AspectSubscriptionManager subscriptionManager = getWorld().getAspectSubscriptionManager();
+        subscriptionManager.get(Aspect.all(MainItemComponent.class)).addSubscriptionListener(invalidateListener);
+        subscriptionManager.get(Aspect.all(ShaderComponent.class)).addSubscriptionListener(invalidateListener);
+
+        getWorld().inject(staticBatchCache);
+        getWorld().inject(textureSorter);
+        subscriptionManager.get(Aspect.all(CompositeTransformComponent.class)).addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+            @Override
+            public void inserted(IntBag entities) {
+
+            }
+
+            @Override
+            public void removed(IntBag entities) {
+                int[] ids = entities.getData();
+                for (int i = 0, s = entities.size(); i < s; i++) {
+                    staticBatchCache.remove(ids[i]);
+                }
+            }
+        });
+        subscriptionManager.get(Aspect.all(ShaderComponent.class)).addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+            @Override
+            public void inserted(IntBag entities) {
+                staticBatchCache.invalidateAll();
+            }
+
+            @Override
+            public void removed(IntBag entities) {
+                staticBatchCache.invalidateAll();
+            }
+        });
+    }
+
     public void addDrawableType(IExternalItemType itemType) {
         drawableLogicMapper.addDrawableToMap(itemType.getTypeId(), itemType.getDrawable());
     }
 
+    @Override
+    protected void begin() {
+        if (transformInterpolation != null)
+            transformInterpolation.apply();
+    }
+
+    @Override
+    protected void end() {
+        if (transformInterpolation != null)
+            transformInterpolation.restore();
+    }
+
     @Override
     public void process(int entity) {
         timeRunning += getWorld().delta;
+        drawnEntities = 0;
+        culledEntities = 0;
+        fboSwitches = 0;
 
         ViewPortComponent ViewPortComponent = viewPortMapper.get(entity);
         pixelsPerWU = ViewPortComponent.pixelsPerWU;
@@ -107,19 +219,25 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
 
         Gdx.gl.glClearColor(clearColor.r, clearColor.g, clearColor.b, clearColor.a);
         frameBufferManager.begin("main");
+        fboSwitches++;
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         camera.update();
         batch.setProjectionMatrix(camera.combined);
 
+        if (retainedMode && !isRenderListValid(entity))
+            buildRenderList(entity);
+
         batch.begin();
-        drawRecursively(entity, 1f, DrawableLogic.RenderingType.TEXTURE);
+        drawScene(entity, DrawableLogic.RenderingType.TEXTURE);
         batch.end();
         frameBufferManager.endCurrent();
+        fboSwitches++;
 
         if (rayHandler != null && useLights) {
             //Render normal map texture only if lights are enabled
             frameBufferManager.begin("normalMap");
+            fboSwitches++;
             Gdx.gl.glClearColor(0, 0, 0, 0);
             Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
@@ -127,9 +245,10 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
 
             batch.begin();
             hasNormals = false;
-            drawRecursively(entity, 1f, DrawableLogic.RenderingType.NORMAL_MAP);
+            drawScene(entity, DrawableLogic.RenderingType.NORMAL_MAP);
             batch.end();
             frameBufferManager.endCurrent();
+            fboSwitches++;
         }
 
         screenTexture = frameBufferManager.getColorBufferTexture("main");
@@ -188,9 +307,42 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             rayHandler.setCombinedMatrix(orthoCamera);
             rayHandler.updateAndRender();
         }
+
+        if (frameStats != null && frameStats.isEnabled()) {
+            FrameStats stats = frameStats.getCurrent();
+            stats.entitiesDrawn += drawnEntities;
+            stats.entitiesCulled += culledEntities;
+            stats.fboSwitches += fboSwitches;
+            if (rayHandler != null && useLights)
+                stats.lightsRendered += rayHandler.getLightRenderedLastFrame();
+        }
+    }
+
+    private void drawScene(int rootEntity, DrawableLogic.RenderingType renderingType) {
+        if (retainedMode)
+            drawRenderList(1f, renderingType);
+        else
+            drawRecursively(rootEntity, 1f, renderingType);
     }
 
     private void drawRecursively(int rootEntity, float parentAlpha, DrawableLogic.RenderingType renderingType) {
+        boolean scissors = beginComposite(rootEntity);
+
+        TintComponent tintComponent = tintComponentMapper.get(rootEntity);
+        parentAlpha *= tintComponent.color.a;
+
+        CompositeTransformComponent curCompositeTransformComponent = compositeTransformMapper.get(rootEntity);
+        drawChildren(rootEntity, batch, curCompositeTransformComponent, parentAlpha, renderingType);
+
+        endComposite(rootEntity, scissors);
+    }
+
+    /**
+     * Prepare batch state (FBO, transform matrix, scissors and shader) before drawing composite's children
+     *
+     * @return true if scissors have been pushed and must be popped in {@link #endComposite(int, boolean)}
+     */
+    private boolean beginComposite(int rootEntity) {
         CompositeTransformComponent curCompositeTransformComponent = compositeTransformMapper.get(rootEntity);
         TransformComponent transform = transformMapper.get(rootEntity);
         DimensionsComponent dimensions = dimensionsMapper.get(rootEntity);
@@ -202,6 +354,7 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
 
         if (curCompositeTransformComponent.renderToFBO) {
             //Active composite frame buffer
+            flushBatch(PolygonSpriteBatch.FLUSH_FBO);
             batch.end();
 
             frameBufferManager.createIfNotExists(fboTag, (int) dimensions.width * pixelsPerWU, (int) dimensions.height * pixelsPerWU);
@@ -214,6 +367,7 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             fboM4Stack.push(fboM4Pool.obtain().set(tmpFboCamera.combined));
 
             frameBufferManager.begin(fboTag);
+            fboSwitches++;
 
             batch.begin();
             Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -224,7 +378,7 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             }
 
             if (curCompositeTransformComponent.scissorsEnabled) {
-                batch.flush();
+                flushBatch(PolygonSpriteBatch.FLUSH_SCISSOR);
                 ScissorStack.calculateScissors(camera, transform.oldTransform, curCompositeTransformComponent.clipBounds, curCompositeTransformComponent.scissors);
                 if (ScissorStack.pushScissors(curCompositeTransformComponent.scissors)) {
                     scissors = true;
@@ -234,15 +388,24 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             applyShader(rootEntity, batch);
         }
 
-        TintComponent tintComponent = tintComponentMapper.get(rootEntity);
-        parentAlpha *= tintComponent.color.a;
+        return scissors;
+    }
 
-        drawChildren(rootEntity, batch, curCompositeTransformComponent, parentAlpha, renderingType);
+    /**
+     * Restore batch state changed by {@link #beginComposite(int)}, drawing the FBO result if needed
+     */
+    private void endComposite(int rootEntity, boolean scissors) {
+        CompositeTransformComponent curCompositeTransformComponent = compositeTransformMapper.get(rootEntity);
+        TransformComponent transform = transformMapper.get(rootEntity);
+        DimensionsComponent dimensions = dimensionsMapper.get(rootEntity);
+        MainItemComponent mainItemComponent = mainItemComponentMapper.get(rootEntity);
 
         if (curCompositeTransformComponent.renderToFBO) {
             //Close FBO and render the result
+            flushBatch(PolygonSpriteBatch.FLUSH_FBO);
             batch.end();
             frameBufferManager.endCurrent();
+            fboSwitches++;
 
             Matrix4 fboM4 = fboM4Stack.pop();
             fboM4Pool.free(fboM4);
@@ -256,7 +419,7 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
 
             applyShader(rootEntity, batch);
 
-            Texture bufferTexture = frameBufferManager.getColorBufferTexture(fboTag);
+            Texture bufferTexture = frameBufferManager.getColorBufferTexture(mainItemComponent.itemIdentifier);
             float scaleX = transform.scaleX * (transform.flipX ? -1 : 1);
             float scaleY = transform.scaleY * (transform.flipY ? -1 : 1);
             batch.draw(bufferTexture,
@@ -277,7 +440,7 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             resetShader(rootEntity, batch);
 
             if (scissors) {
-                batch.flush();
+                flushBatch(PolygonSpriteBatch.FLUSH_SCISSOR);
                 ScissorStack.popScissors();
             }
 
@@ -289,7 +452,6 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
     private void drawChildren(int rootEntity, Batch batch, CompositeTransformComponent curCompositeTransformComponent, float parentAlpha,
                               DrawableLogic.RenderingType renderingType) {
         NodeComponent nodeComponent = nodeMapper.get(rootEntity);
-        Integer[] children = nodeComponent.children.begin();
         TransformComponent transform = transformMapper.get(rootEntity);
         LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
 
@@ -301,62 +463,339 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
             offsetY = 0;
         }
 
-        for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
-            int child = children[i];
+        // The group doesn't need matrix transformation. Just offset child in screen coordinates.
+        boolean offsetChildren = !transform.shouldTransform() || curCompositeTransformComponent.renderToFBO;
 
-            ZIndexComponent childZIndexComponent = zIndexComponentMapper.get(child);
+        if (curCompositeTransformComponent.isStatic) {
+            drawStaticChildren(rootEntity, rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
+            return;
+        }
 
-            if (!rootLayers.isVisible(childZIndexComponent.layerName)) {
-                //Skip if layer is not visible
-                continue;
+        int[] children = nodeComponent.children.begin();
+        if (textureSorting) {
+            drawSortedChildren(children, nodeComponent.children.size, rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
+        } else {
+            for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+                drawChild(children[i], rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
             }
+        }
+        nodeComponent.children.end();
+    }
 
-            MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
-            if (!childMainItemComponent.visible || childMainItemComponent.culled) {
-                //Skip if entity is culled or not visible
+    /**
+     * Draw children grouping by texture consecutive non composite items of the same layer, see {@link TextureSorter}
+     */
+    private void drawSortedChildren(int[] children, int size, LayerMapComponent rootLayers, boolean offsetChildren, float offsetX,
+                                    float offsetY, float parentAlpha, DrawableLogic.RenderingType renderingType) {
+        int i = 0;
+        while (i < size) {
+            int child = children[i];
+            if (nodeMapper.has(child)) {
+                drawChild(child, rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
+                i++;
                 continue;
             }
 
-            TransformComponent childTransformComponent = transformMapper.get(child);
-            float cx = childTransformComponent.x, cy = childTransformComponent.y;
-            NodeComponent childNodeComponent = nodeMapper.get(child);
+            String layerName = zIndexComponentMapper.get(child).layerName;
+            sortBuffer.clear();
+            while (i < size && !nodeMapper.has(children[i]) && layerName.equals(zIndexComponentMapper.get(children[i]).layerName)) {
+                sortBuffer.add(children[i]);
+                i++;
+            }
 
-            if (!transform.shouldTransform() || curCompositeTransformComponent.renderToFBO) {
-                // The group doesn't need matrix transformation. Just offset child in screen coordinates.
-                childTransformComponent.x = cx + offsetX;
-                childTransformComponent.y = cy + offsetY;
+            textureSorter.sort(sortBuffer, null, 0);
+            int[] sorted = sortBuffer.items;
+            for (int j = 0, n = sortBuffer.size; j < n; j++) {
+                drawChild(sorted[j], rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
             }
+        }
+        sortBuffer.clear();
+    }
+
+    private void drawChild(int child, LayerMapComponent rootLayers, boolean offsetChildren, float offsetX, float offsetY, float parentAlpha,
+                           DrawableLogic.RenderingType renderingType) {
+        ZIndexComponent childZIndexComponent = zIndexComponentMapper.get(child);
+
+        if (!rootLayers.isVisible(childZIndexComponent.layerName)) {
+            //Skip if layer is not visible
+            return;
+        }
+
+        MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
+        if (!childMainItemComponent.visible || childMainItemComponent.culled) {
+            //Skip if entity is culled or not visible
+            if (childMainItemComponent.visible && renderingType == DrawableLogic.RenderingType.TEXTURE)
+                culledEntities++;
+            return;
+        }
+
+        TransformComponent childTransformComponent = transformMapper.get(child);
+        float cx = childTransformComponent.x, cy = childTransformComponent.y;
+        NodeComponent childNodeComponent = nodeMapper.get(child);
 
-            if (childNodeComponent == null) {
-                if (checkRenderingLayer(child))
-                    drawEntity(batch, child, parentAlpha, renderingType);
+        if (offsetChildren) {
+            childTransformComponent.x = cx + offsetX;
+            childTransformComponent.y = cy + offsetY;
+        }
+
+        if (childNodeComponent == null) {
+            if (checkRenderingLayer(child))
+                drawEntity(batch, child, parentAlpha, renderingType);
+        } else {
+            //Step into Composite
+            drawRecursively(child, parentAlpha, renderingType);
+        }
+
+        if (offsetChildren) {
+            //Restore composite relative position.
+            childTransformComponent.x = cx;
+            childTransformComponent.y = cy;
+        }
+    }
+
+    /**
+     * Replay baked images of a static composite, children that can't be baked are drawn as usual in between
+     */
+    private void drawStaticChildren(int rootEntity, LayerMapComponent rootLayers, boolean offsetChildren, float offsetX, float offsetY,
+                                    float parentAlpha, DrawableLogic.RenderingType renderingType) {
+        StaticBatchCache.StaticBatch staticBatch = staticBatchCache.get(rootEntity, parentAlpha,
+                offsetChildren ? offsetX : 0, offsetChildren ? offsetY : 0);
+
+        int[] entries = staticBatch.entries.items;
+        for (int i = 0, n = staticBatch.entries.size; i < n; i++) {
+            int entry = entries[i];
+            if (entry >= 0) {
+                //Baked images don't have normal maps
+                if (renderingType == DrawableLogic.RenderingType.TEXTURE) {
+                    staticBatch.drawRun(batch, entry);
+                    drawnEntities += staticBatch.getRunSize(entry);
+                }
             } else {
-                //Step into Composite
-                drawRecursively(child, parentAlpha, renderingType);
+                drawChild(-entry - 1, rootLayers, offsetChildren, offsetX, offsetY, parentAlpha, renderingType);
             }
+        }
+    }
+
+    /**
+     * Flatten the {@link NodeComponent} tree in a list of {@link RenderCommand}s,
+     * resolving drawable logic, shaders and layers once per hierarchy change.
+     */
+    private void buildRenderList(int rootEntity) {
+        renderCommandPool.freeAll(renderCommands);
+        renderCommands.clear();
+
+        recordComposite(rootEntity, null);
+
+        renderListRoot = rootEntity;
+        renderListDirty = false;
+    }
+
+    private void recordComposite(int rootEntity, LayerItemVO layer) {
+        NodeComponent nodeComponent = nodeMapper.get(rootEntity);
+        LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
+
+        RenderCommand begin = obtainCommand(RenderCommand.BEGIN_COMPOSITE, rootEntity, layer);
+        begin.node = nodeComponent;
+        begin.childrenCount = nodeComponent.children.size;
 
-            if (!transform.shouldTransform() || curCompositeTransformComponent.renderToFBO) {
-                //Restore composite relative position.
-                childTransformComponent.x = cx;
-                childTransformComponent.y = cy;
+        int[] children = nodeComponent.children.begin();
+        for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+            int child = children[i];
+
+            ZIndexComponent childZIndexComponent = zIndexComponentMapper.get(child);
+            LayerItemVO childLayer = rootLayers.getLayer(childZIndexComponent.layerName);
+
+            if (nodeMapper.has(child)) {
+                recordComposite(child, childLayer);
+            } else {
+                RenderCommand draw = obtainCommand(RenderCommand.DRAW, child, childLayer);
+                draw.drawableLogic = drawableLogicMapper.getDrawable(draw.mainItem.entityType);
             }
         }
         nodeComponent.children.end();
+
+        obtainCommand(RenderCommand.END_COMPOSITE, rootEntity, layer);
+        begin.end = renderCommands.size - 1;
+    }
+
+    private RenderCommand obtainCommand(int type, int entity, LayerItemVO layer) {
+        RenderCommand command = renderCommandPool.obtain();
+        command.type = type;
+        command.entity = entity;
+        command.layer = layer;
+        command.shader = shaderComponentMapper.get(entity);
+        command.mainItem = mainItemComponentMapper.get(entity);
+        command.transform = transformMapper.get(entity);
+        command.tint = tintComponentMapper.get(entity);
+        renderCommands.add(command);
+        return command;
+    }
+
+    /**
+     * Check if the recorded hierarchy still matches the {@link NodeComponent} tree
+     */
+    private boolean isRenderListValid(int rootEntity) {
+        if (renderListDirty || renderListRoot != rootEntity || renderCommands.size == 0)
+            return false;
+
+        RenderCommand[] commands = renderCommands.items;
+        for (int i = 0, n = renderCommands.size; i < n; i++) {
+            RenderCommand command = commands[i];
+            if (command.type == RenderCommand.BEGIN_COMPOSITE && command.node.children.size != command.childrenCount)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replay the retained render list linearly, same result of {@link #drawRecursively(int, float, DrawableLogic.RenderingType)}
+     */
+    private void drawRenderList(float parentAlpha, DrawableLogic.RenderingType renderingType) {
+        RenderCommand[] commands = renderCommands.items;
+        for (int i = 0, n = renderCommands.size; i < n; i++) {
+            RenderCommand command = commands[i];
+            TransformComponent transform = command.transform;
+
+            switch (command.type) {
+                case RenderCommand.BEGIN_COMPOSITE: {
+                    boolean isRoot = i == 0;
+                    if (!isRoot && !command.isVisible()) {
+                        //Skip the whole composite
+                        i = command.end;
+                        continue;
+                    }
+
+                    float cx = transform.x, cy = transform.y;
+                    boolean offset = !isRoot && applyParentOffset(transform);
+                    float alpha = (isRoot ? parentAlpha : frameAlpha.peek()) * command.tint.color.a;
+
+                    boolean scissors = beginComposite(command.entity);
+
+                    CompositeTransformComponent compositeTransform = compositeTransformMapper.get(command.entity);
+                    boolean offsetChildren = !transform.shouldTransform() || compositeTransform.renderToFBO;
+                    boolean noOffset = isRoot || compositeTransform.renderToFBO;
+
+                    frameAlpha.add(alpha);
+                    frameScissors.add(scissors);
+                    frameOffsetChildren.add(offsetChildren);
+                    frameOffsetX.add(noOffset ? 0 : transform.x);
+                    frameOffsetY.add(noOffset ? 0 : transform.y);
+                    frameApplied.add(offset);
+                    frameRestoreX.add(cx);
+                    frameRestoreY.add(cy);
+
+                    if (compositeTransform.isStatic) {
+                        drawStaticChildren(command.entity, layerMapComponentMapper.get(command.entity), offsetChildren,
+                                noOffset ? 0 : transform.x, noOffset ? 0 : transform.y, alpha, renderingType);
+                        //Jump to the matching END_COMPOSITE
+                        i = command.end - 1;
+                    }
+                    break;
+                }
+                case RenderCommand.DRAW: {
+                    if (!textureSorting) {
+                        drawCommand(command, renderingType);
+                        break;
+                    }
+
+                    //Group consecutive draws of the same layer
+                    sortBuffer.clear();
+                    sortTags.clear();
+                    int last = i;
+                    while (last < n && commands[last].type == RenderCommand.DRAW && commands[last].layer == command.layer) {
+                        sortBuffer.add(commands[last].entity);
+                        sortTags.add(last);
+                        last++;
+                    }
+
+                    textureSorter.sort(sortBuffer, sortTags, 0);
+                    for (int j = 0; j < sortTags.size; j++) {
+                        drawCommand(commands[sortTags.get(j)], renderingType);
+                    }
+                    i = last - 1;
+                    break;
+                }
+                case RenderCommand.END_COMPOSITE: {
+                    frameAlpha.pop();
+                    frameOffsetChildren.pop();
+                    frameOffsetX.pop();
+                    frameOffsetY.pop();
+                    boolean scissors = frameScissors.pop();
+                    boolean offset = frameApplied.pop();
+                    float cx = frameRestoreX.pop(), cy = frameRestoreY.pop();
+
+                    endComposite(command.entity, scissors);
+
+                    if (offset) {
+                        //Restore composite relative position.
+                        transform.x = cx;
+                        transform.y = cy;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void drawCommand(RenderCommand command, DrawableLogic.RenderingType renderingType) {
+        if (!command.isVisible()) {
+            if (command.mainItem.culled && renderingType == DrawableLogic.RenderingType.TEXTURE)
+                culledEntities++;
+            return;
+        }
+        if (command.shader != null && !checkRenderingLayer(command.entity))
+            return;
+
+        TransformComponent transform = command.transform;
+        float cx = transform.x, cy = transform.y;
+        boolean offset = applyParentOffset(transform);
+
+        drawEntity(batch, command.entity, command.drawableLogic, frameAlpha.peek(), renderingType);
+
+        if (offset) {
+            //Restore composite relative position.
+            transform.x = cx;
+            transform.y = cy;
+        }
+    }
+
+    private boolean applyParentOffset(TransformComponent transform) {
+        if (frameOffsetChildren.size == 0 || !frameOffsetChildren.peek())
+            return false;
+
+        // The group doesn't need matrix transformation. Just offset child in screen coordinates.
+        transform.x += frameOffsetX.peek();
+        transform.y += frameOffsetY.peek();
+        return true;
     }
 
     private void drawEntity(Batch batch, int child, float parentAlpha, DrawableLogic.RenderingType renderingType) {
+        int entityType = mainItemComponentMapper.get(child).entityType;
+        //Find the logic from mapper and draw it
+        drawEntity(batch, child, drawableLogicMapper.getDrawable(entityType), parentAlpha, renderingType);
+    }
+
+    private void drawEntity(Batch batch, int child, DrawableLogic drawableLogic, float parentAlpha, DrawableLogic.RenderingType renderingType) {
         if (renderingType == DrawableLogic.RenderingType.NORMAL_MAP && !normalMapMapper.has(child)) {
             return;
         } else if (renderingType == DrawableLogic.RenderingType.NORMAL_MAP && normalMapMapper.has(child))
             hasNormals = true;
-        int entityType = mainItemComponentMapper.get(child).entityType;
+
+        if (renderingType == DrawableLogic.RenderingType.TEXTURE)
+            drawnEntities++;
 
         applyShader(child, batch);
-        //Find the logic from mapper and draw it
-        drawableLogicMapper.getDrawable(entityType).draw(batch, child, parentAlpha, renderingType);
+        drawableLogic.draw(batch, child, parentAlpha, renderingType);
         resetShader(child, batch);
     }
 
+    private void flushBatch(int cause) {
+        if (batch instanceof PolygonSpriteBatch)
+            ((PolygonSpriteBatch) batch).flush(cause);
+        else
+            batch.flush();
+    }
+
     /**
      * Returns the transform for this group's coordinate system.
      *
@@ -532,6 +971,8 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
         frameBufferManager.disposeAll();
         fboM4Pool.clear();
         fboM4Stack.clear();
+        renderCommandPool.freeAll(renderCommands);
+        renderCommands.clear();
     }
 
     public void resize(int width, int height) {
@@ -551,6 +992,57 @@ public class HyperLap2dRenderer extends IteratingSystem implements RendererSyste
         invScreenHeight = 1f / screenCamera.viewportHeight;
     }
 
+    /**
+     * Enable retained render list mode: the scene tree is flattened in a list of {@link RenderCommand}s
+     * that is rebuilt only when hierarchy, z-order or entity composition changes and replayed linearly otherwise.
+     */
+    public void setRetainedMode(boolean retainedMode) {
+        this.retainedMode = retainedMode;
+        invalidateRenderList();
+    }
+
+    public boolean isRetainedMode() {
+        return retainedMode;
+    }
+
+    /**
+     * Enable texture sorting: consecutive items of the same layer are reordered to group draws sharing
+     * the same texture, only when they don't overlap (see {@link TextureSorter}).
+     * Useful to reduce render calls of scenes using multiple atlases, requires {@link BoundingBoxComponent}s.
+     */
+    public void setTextureSorting(boolean textureSorting) {
+        this.textureSorting = textureSorting;
+    }
+
+    public boolean isTextureSorting() {
+        return textureSorting;
+    }
+
+    /**
+     * Force rebuild of the retained render list in the next frame.
+     * Changes of {@link ZIndexComponent#layerName} and of the layers of {@link LayerMapComponent} are detected
+     * by {@link games.rednblack.editor.renderer.systems.LayerSystem}, layers edited through
+     * {@link LayerMapComponent#getLayers()} need {@link LayerMapComponent#markDirty()} instead.
+     */
+    public void invalidateRenderList() {
+        renderListDirty = true;
+    }
+
+    /**
+     * Force the children of a static composite to be baked again, needed only for changes
+     * that are not tracked (e.g. pixels of the texture region updated in place).
+     */
+    public void invalidateStaticBatch(int composite) {
+        staticBatchCache.invalidate(composite);
+    }
+
+    /**
+     * Set the recorder that will receive drawn/culled entities, FBO switches and lights counters, can be null
+     */
+    public void setFrameStats(FrameStatsRecorder frameStats) {
+        this.frameStats = frameStats;
+    }
+
     public void setUseLights(boolean useLights) {
         this.useLights = useLights;
     }
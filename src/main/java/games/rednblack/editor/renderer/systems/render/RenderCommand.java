@@ -0,0 +1,58 @@
+package games.rednblack.editor.renderer.systems.render;
+
+import com.badlogic.gdx.utils.Pool;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.data.LayerItemVO;
+import games.rednblack.editor.renderer.systems.render.logic.DrawableLogic;
+
+/**
+ * Single entry of the retained render list built by {@link HyperLap2dRenderer}.
+ * Everything that can be resolved once per hierarchy change is stored here, so that
+ * replaying the list does not need to walk the {@link NodeComponent} tree again.
+ */
+public class RenderCommand implements Pool.Poolable {
+    public static final int BEGIN_COMPOSITE = 0;
+    public static final int DRAW = 1;
+    public static final int END_COMPOSITE = 2;
+
+    public int type;
+    public int entity = -1;
+
+    /** Index of the matching {@link #END_COMPOSITE}, used to skip hidden composites */
+    public int end = -1;
+    /** Children count at build time, used to detect hierarchy changes */
+    public int childrenCount;
+
+    public DrawableLogic drawableLogic;
+    public ShaderComponent shader;
+    public LayerItemVO layer;
+
+    public MainItemComponent mainItem;
+    public TransformComponent transform;
+    public TintComponent tint;
+    public NodeComponent node;
+
+    /**
+     * Check if the command should be replayed in the current frame
+     */
+    public boolean isVisible() {
+        if (layer != null && !layer.isVisible)
+            return false;
+        return mainItem.visible && !mainItem.culled;
+    }
+
+    @Override
+    public void reset() {
+        type = 0;
+        entity = -1;
+        end = -1;
+        childrenCount = 0;
+        drawableLogic = null;
+        shader = null;
+        layer = null;
+        mainItem = null;
+        transform = null;
+        tint = null;
+        node = null;
+    }
+}
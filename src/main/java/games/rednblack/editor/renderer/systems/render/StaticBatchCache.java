@@ -0,0 +1,337 @@
+package games.rednblack.editor.renderer.systems.render;
+
+import com.artemis.ComponentMapper;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.components.normal.NormalMapRendering;
+import games.rednblack.editor.renderer.data.LayerItemVO;
+import games.rednblack.editor.renderer.systems.render.logic.DrawableLogic;
+import games.rednblack.editor.renderer.systems.render.logic.DrawableLogicMapper;
+import games.rednblack.editor.renderer.systems.render.logic.TextureRegionDrawLogic;
+import games.rednblack.editor.renderer.utils.ABAtlasRegion;
+
+/**
+ * Keep the baked vertices of the image children of static composites (see {@link CompositeTransformComponent#isStatic}).
+ * Consecutive images sharing the same texture are merged in a single run that is replayed with one
+ * {@link Batch#draw(Texture, float[], int, int)} call, children that can't be baked (composites, labels,
+ * particles, images with shaders or normal maps...) are left in place and drawn as usual to keep the draw order.
+ */
+public class StaticBatchCache {
+    private static final int HIDDEN = 0;
+    private static final int LIVE = 1;
+    private static final int BAKED = 2;
+
+    protected ComponentMapper<NodeComponent> nodeMapper;
+    protected ComponentMapper<MainItemComponent> mainItemMapper;
+    protected ComponentMapper<ZIndexComponent> zIndexMapper;
+    protected ComponentMapper<LayerMapComponent> layerMapMapper;
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+    protected ComponentMapper<TintComponent> tintMapper;
+    protected ComponentMapper<TextureRegionComponent> textureRegionMapper;
+    protected ComponentMapper<ShaderComponent> shaderMapper;
+    protected ComponentMapper<NormalMapRendering> normalMapMapper;
+
+    private final DrawableLogicMapper drawableLogicMapper;
+    private final IntMap<StaticBatch> batches = new IntMap<>();
+
+    public StaticBatchCache(DrawableLogicMapper drawableLogicMapper) {
+        this.drawableLogicMapper = drawableLogicMapper;
+    }
+
+    /**
+     * Get the baked children of a static composite, vertices are rebuilt only if a child changed.
+     *
+     * @param offsetX offset applied to children positions when the composite is not transformed
+     * @param offsetY offset applied to children positions when the composite is not transformed
+     */
+    public StaticBatch get(int composite, float parentAlpha, float offsetX, float offsetY) {
+        StaticBatch staticBatch = batches.get(composite);
+        if (staticBatch == null) {
+            staticBatch = new StaticBatch();
+            batches.put(composite, staticBatch);
+        }
+
+        if (staticBatch.dirty || staticBatch.parentAlpha != parentAlpha || !isValid(composite, staticBatch)) {
+            bake(composite, staticBatch, parentAlpha, offsetX, offsetY);
+        } else if (staticBatch.offsetX != offsetX || staticBatch.offsetY != offsetY) {
+            staticBatch.translate(offsetX - staticBatch.offsetX, offsetY - staticBatch.offsetY);
+            staticBatch.offsetX = offsetX;
+            staticBatch.offsetY = offsetY;
+        }
+        return staticBatch;
+    }
+
+    /**
+     * Force the composite children to be baked again on next draw
+     */
+    public void invalidate(int composite) {
+        StaticBatch staticBatch = batches.get(composite);
+        if (staticBatch != null)
+            staticBatch.dirty = true;
+    }
+
+    public void invalidateAll() {
+        for (StaticBatch staticBatch : batches.values()) {
+            staticBatch.dirty = true;
+        }
+    }
+
+    public void remove(int composite) {
+        batches.remove(composite);
+    }
+
+    public void clear() {
+        batches.clear();
+    }
+
+    private boolean isValid(int composite, StaticBatch staticBatch) {
+        NodeComponent nodeComponent = nodeMapper.get(composite);
+        LayerMapComponent layers = layerMapMapper.get(composite);
+        IntArray children = nodeComponent.children;
+        if (children.size != staticBatch.children.size)
+            return false;
+
+        int[] ids = children.items;
+        int[] bakedIds = staticBatch.children.items;
+        int[] states = staticBatch.states.items;
+        int[] transformVersions = staticBatch.transformVersions.items;
+        int[] dimensionsVersions = staticBatch.dimensionsVersions.items;
+        float[] colors = staticBatch.colors.items;
+        TextureRegion[] regions = staticBatch.regions.items;
+        for (int i = 0, n = children.size; i < n; i++) {
+            int child = ids[i];
+            if (child != bakedIds[i] || getState(child, layers) != states[i])
+                return false;
+
+            if (states[i] != BAKED)
+                continue;
+
+            TextureRegionComponent textureRegionComponent = textureRegionMapper.get(child);
+            if (transformMapper.get(child).getVersion() != transformVersions[i]
+                    || dimensionsMapper.get(child).getVersion() != dimensionsVersions[i]
+                    || tintMapper.get(child).color.toFloatBits() != colors[i]
+                    || textureRegionComponent.region != regions[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void bake(int composite, StaticBatch staticBatch, float parentAlpha, float offsetX, float offsetY) {
+        staticBatch.clear();
+        staticBatch.parentAlpha = parentAlpha;
+        staticBatch.offsetX = offsetX;
+        staticBatch.offsetY = offsetY;
+
+        NodeComponent nodeComponent = nodeMapper.get(composite);
+        LayerMapComponent layers = layerMapMapper.get(composite);
+        int[] ids = nodeComponent.children.items;
+        Texture runTexture = null;
+        for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+            int child = ids[i];
+            int state = getState(child, layers);
+
+            staticBatch.children.add(child);
+            staticBatch.states.add(state);
+
+            if (state != BAKED) {
+                staticBatch.transformVersions.add(-1);
+                staticBatch.dimensionsVersions.add(-1);
+                staticBatch.colors.add(0);
+                staticBatch.regions.add(null);
+                if (state == LIVE) {
+                    staticBatch.entries.add(-child - 1);
+                    runTexture = null;
+                }
+                continue;
+            }
+
+            TransformComponent transform = transformMapper.get(child);
+            DimensionsComponent dimensions = dimensionsMapper.get(child);
+            Color tint = tintMapper.get(child).color;
+            TextureRegion region = textureRegionMapper.get(child).region;
+
+            staticBatch.transformVersions.add(transform.getVersion());
+            staticBatch.dimensionsVersions.add(dimensions.getVersion());
+            staticBatch.colors.add(tint.toFloatBits());
+            staticBatch.regions.add(region);
+
+            if (region.getTexture() != runTexture) {
+                runTexture = region.getTexture();
+                staticBatch.entries.add(staticBatch.runTextures.size);
+                staticBatch.runTextures.add(runTexture);
+                staticBatch.runOffsets.add(staticBatch.vertices.size);
+                staticBatch.runLengths.add(0);
+            }
+
+            float color = Color.toFloatBits(tint.r, tint.g, tint.b, tint.a * parentAlpha);
+            bakeSprite(staticBatch.vertices, region, transform, dimensions, color, offsetX, offsetY);
+            staticBatch.runLengths.incr(staticBatch.runLengths.size - 1, 20);
+        }
+        staticBatch.dirty = false;
+    }
+
+    private int getState(int child, LayerMapComponent layers) {
+        ZIndexComponent zIndexComponent = zIndexMapper.get(child);
+        LayerItemVO layer = layers.getLayer(zIndexComponent.layerName);
+        if ((layer != null && !layer.isVisible) || !mainItemMapper.get(child).visible)
+            return HIDDEN;
+
+        if (nodeMapper.has(child) || shaderMapper.has(child) || normalMapMapper.has(child))
+            return LIVE;
+
+        TextureRegionComponent textureRegionComponent = textureRegionMapper.get(child);
+        DrawableLogic drawableLogic = drawableLogicMapper.getDrawable(mainItemMapper.get(child).entityType);
+        if (textureRegionComponent == null || drawableLogic == null || drawableLogic.getClass() != TextureRegionDrawLogic.class)
+            return LIVE;
+
+        textureRegionComponent.executeRefresh(child);
+        if (textureRegionComponent.region == null || textureRegionComponent.region instanceof ABAtlasRegion
+                || (textureRegionComponent.isPolygon && textureRegionComponent.repeatablePolygonSprite != null))
+            return LIVE;
+
+        return BAKED;
+    }
+
+    /**
+     * Same vertices produced by {@link Batch#draw(TextureRegion, float, float, float, float, float, float, float, float, float)}
+     */
+    private void bakeSprite(FloatArray vertices, TextureRegion region, TransformComponent transform, DimensionsComponent dimensions,
+                            float color, float offsetX, float offsetY) {
+        float originX = transform.originX;
+        float originY = transform.originY;
+        float scaleX = transform.scaleX * (transform.flipX ? -1 : 1);
+        float scaleY = transform.scaleY * (transform.flipY ? -1 : 1);
+        float rotation = transform.rotation;
+
+        final float worldOriginX = transform.x + offsetX + originX;
+        final float worldOriginY = transform.y + offsetY + originY;
+        float fx = -originX;
+        float fy = -originY;
+        float fx2 = dimensions.width - originX;
+        float fy2 = dimensions.height - originY;
+
+        if (scaleX != 1 || scaleY != 1) {
+            fx *= scaleX;
+            fy *= scaleY;
+            fx2 *= scaleX;
+            fy2 *= scaleY;
+        }
+
+        float x1, y1, x2, y2, x3, y3, x4, y4;
+        if (rotation != 0) {
+            final float cos = MathUtils.cosDeg(rotation);
+            final float sin = MathUtils.sinDeg(rotation);
+
+            x1 = cos * fx - sin * fy;
+            y1 = sin * fx + cos * fy;
+
+            x2 = cos * fx - sin * fy2;
+            y2 = sin * fx + cos * fy2;
+
+            x3 = cos * fx2 - sin * fy2;
+            y3 = sin * fx2 + cos * fy2;
+
+            x4 = x1 + (x3 - x2);
+            y4 = y3 - (y2 - y1);
+        } else {
+            x1 = fx;
+            y1 = fy;
+
+            x2 = fx;
+            y2 = fy2;
+
+            x3 = fx2;
+            y3 = fy2;
+
+            x4 = fx2;
+            y4 = fy;
+        }
+
+        x1 += worldOriginX;
+        y1 += worldOriginY;
+        x2 += worldOriginX;
+        y2 += worldOriginY;
+        x3 += worldOriginX;
+        y3 += worldOriginY;
+        x4 += worldOriginX;
+        y4 += worldOriginY;
+
+        final float u = region.getU();
+        final float v = region.getV2();
+        final float u2 = region.getU2();
+        final float v2 = region.getV();
+
+        vertices.add(x1, y1, color, u);
+        vertices.add(v);
+        vertices.add(x2, y2, color, u);
+        vertices.add(v2);
+        vertices.add(x3, y3, color, u2);
+        vertices.add(v2);
+        vertices.add(x4, y4, color, u2);
+        vertices.add(v);
+    }
+
+    public static class StaticBatch {
+        /** Draw order, positive values are run indices, negative values are -(entity + 1) of children drawn as usual */
+        public final IntArray entries = new IntArray();
+
+        private final Array<Texture> runTextures = new Array<>();
+        private final IntArray runOffsets = new IntArray();
+        private final IntArray runLengths = new IntArray();
+        private final FloatArray vertices = new FloatArray();
+
+        //Children state at bake time
+        private final IntArray children = new IntArray();
+        private final IntArray states = new IntArray();
+        private final IntArray transformVersions = new IntArray();
+        private final IntArray dimensionsVersions = new IntArray();
+        private final FloatArray colors = new FloatArray();
+        private final Array<TextureRegion> regions = new Array<>(TextureRegion.class);
+
+        private float parentAlpha;
+        private float offsetX, offsetY;
+        private boolean dirty = true;
+
+        public void drawRun(Batch batch, int run) {
+            batch.draw(runTextures.get(run), vertices.items, runOffsets.get(run), runLengths.get(run));
+        }
+
+        /**
+         * @return number of images baked in the run
+         */
+        public int getRunSize(int run) {
+            return runLengths.get(run) / 20;
+        }
+
+        private void translate(float x, float y) {
+            float[] items = vertices.items;
+            for (int i = 0, n = vertices.size; i < n; i += 5) {
+                items[i] += x;
+                items[i + 1] += y;
+            }
+        }
+
+        private void clear() {
+            entries.clear();
+            runTextures.clear();
+            runOffsets.clear();
+            runLengths.clear();
+            vertices.clear();
+            children.clear();
+            states.clear();
+            transformVersions.clear();
+            dimensionsVersions.clear();
+            colors.clear();
+            regions.clear();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package games.rednblack.editor.renderer.systems.render;
+
+import com.artemis.ComponentMapper;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.BoundingBoxComponent;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.ShaderComponent;
+import games.rednblack.editor.renderer.components.TextureRegionComponent;
+import games.rednblack.editor.renderer.factory.EntityFactory;
+
+/**
+ * Reorder a sequence of items of the same layer so that items sharing the same texture are drawn one after
+ * the other, reducing the batch flushes caused by texture switches.
+ * An item is moved back next to the previous item with its same texture only if it doesn't overlap any of the
+ * items it jumps over (using {@link BoundingBoxComponent}), so the final image doesn't change.
+ * Items without a bounding box are never jumped over, as well as items that can draw outside of it: particles
+ * emit outside of their dimensions, labels can overflow them and external item types are unknown.
+ * Items without a known texture or with a custom shader are never moved.
+ */
+public class TextureSorter {
+    /** Max number of items an item can jump over, keeps the pass linear for big layers */
+    private static final int LOOK_BEHIND = 64;
+
+    protected ComponentMapper<TextureRegionComponent> textureRegionMapper;
+    protected ComponentMapper<ShaderComponent> shaderMapper;
+    protected ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
+    protected ComponentMapper<MainItemComponent> mainItemMapper;
+
+    private Texture[] textures = new Texture[16];
+    private Rectangle[] rectangles = new Rectangle[16];
+
+    /**
+     * Sort in place the entities from index {@code from} to the end of the array.
+     *
+     * @param tags optional values that are moved together with the entities, can be null
+     * @return number of moved entities
+     */
+    public int sort(IntArray entities, IntArray tags, int from) {
+        int size = entities.size - from;
+        if (size < 3)
+            return 0;
+
+        ensureCapacity(size);
+        int[] ids = entities.items;
+        int[] values = tags != null ? tags.items : null;
+        for (int i = 0; i < size; i++) {
+            int entity = ids[from + i];
+            textures[i] = getTexture(entity);
+            rectangles[i] = getBounds(entity);
+        }
+
+        int moved = 0;
+        for (int k = 1; k < size; k++) {
+            Texture texture = textures[k];
+            Rectangle rectangle = rectangles[k];
+            if (texture == null || rectangle == null || textures[k - 1] == texture)
+                continue;
+
+            int target = -1;
+            for (int j = k - 1, min = Math.max(0, k - LOOK_BEHIND); j >= min; j--) {
+                if (textures[j] == texture) {
+                    target = j + 1;
+                    break;
+                }
+                if (rectangles[j] == null || rectangles[j].overlaps(rectangle))
+                    break;
+            }
+            if (target == -1)
+                continue;
+
+            //Shift jumped items forward and place the item right after its texture group
+            int entity = ids[from + k];
+            System.arraycopy(ids, from + target, ids, from + target + 1, k - target);
+            ids[from + target] = entity;
+            if (values != null) {
+                int value = values[from + k];
+                System.arraycopy(values, from + target, values, from + target + 1, k - target);
+                values[from + target] = value;
+            }
+            System.arraycopy(textures, target, textures, target + 1, k - target);
+            textures[target] = texture;
+            System.arraycopy(rectangles, target, rectangles, target + 1, k - target);
+            rectangles[target] = rectangle;
+            moved++;
+        }
+
+        for (int i = 0; i < size; i++) {
+            textures[i] = null;
+            rectangles[i] = null;
+        }
+        return moved;
+    }
+
+    /**
+     * @return bounding box of items drawn only inside it, null if the item can't be jumped over
+     */
+    private Rectangle getBounds(int entity) {
+        BoundingBoxComponent boundingBoxComponent = boundingBoxMapper.get(entity);
+        MainItemComponent mainItemComponent = mainItemMapper.get(entity);
+        if (boundingBoxComponent == null || mainItemComponent == null)
+            return null;
+
+        switch (mainItemComponent.entityType) {
+            case EntityFactory.IMAGE_TYPE:
+            case EntityFactory.SPRITE_TYPE:
+            case EntityFactory.NINE_PATCH:
+            case EntityFactory.COLOR_PRIMITIVE:
+                return boundingBoxComponent.rectangle;
+            default:
+                return null;
+        }
+    }
+
+    private Texture getTexture(int entity) {
+        if (shaderMapper.has(entity))
+            return null;
+
+        TextureRegionComponent textureRegionComponent = textureRegionMapper.get(entity);
+        if (textureRegionComponent == null || textureRegionComponent.region == null)
+            return null;
+        return textureRegionComponent.region.getTexture();
+    }
+
+    private void ensureCapacity(int size) {
+        if (textures.length >= size) return;
+
+        int capacity = Math.max(size, textures.length * 2);
+        textures = new Texture[capacity];
+        rectangles = new Rectangle[capacity];
+    }
+}
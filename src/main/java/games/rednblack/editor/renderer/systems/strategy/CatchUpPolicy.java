@@ -0,0 +1,25 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+/**
+ * How {@link HyperLap2dInvocationStrategy} behaves when a frame takes longer than the fixed logic time step
+ * and the simulation falls behind real time.
+ */
+public enum CatchUpPolicy {
+    /**
+     * Frame time is clamped to {@link HyperLap2dInvocationStrategy#setMaxFrameTime(long)} and all the steps
+     * fitting in it are processed. Time above the clamp is lost silently.
+     */
+    CLAMP,
+    /**
+     * At most {@link HyperLap2dInvocationStrategy#setMaxStepsPerFrame(int)} steps are processed, pending steps
+     * above them are carried over and processed by next frames as soon as they have room, so logic runs slower than
+     * real time during a spike and catches up afterwards. At most another frame worth of steps is carried over,
+     * time above it is discarded and the game slows down instead of bursting steps.
+     */
+    TIME_DILATION,
+    /**
+     * At most {@link HyperLap2dInvocationStrategy#setMaxStepsPerFrame(int)} steps are processed,
+     * pending whole steps above them are dropped and reported to the {@link FrameBudgetListener}.
+     */
+    DROP_AND_REPORT
+}
@@ -0,0 +1,20 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.BaseSystem;
+
+/**
+ * Notified by {@link HyperLap2dInvocationStrategy} when logic steps are dropped or a system exceeds its time budget.
+ * Called from the thread processing the world, keep it cheap.
+ */
+public interface FrameBudgetListener {
+    /**
+     * @param steps number of fixed steps dropped in this frame
+     */
+    void stepsDropped(int steps);
+
+    /**
+     * @param nanos time spent by the system in a single process call
+     * @param budgetNanos configured budget of the system
+     */
+    void budgetExceeded(BaseSystem system, long nanos, long budgetNanos);
+}
@@ -4,7 +4,17 @@ import com.artemis.BaseSystem;
 import com.artemis.SystemInvocationStrategy;
 import com.artemis.utils.Bag;
 import com.artemis.utils.BitVector;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectLongMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.reflect.Annotation;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import games.rednblack.editor.renderer.factory.EntityCommandBuffer;
+import games.rednblack.editor.renderer.factory.IncrementalEntityLoader;
+import games.rednblack.editor.renderer.utils.FrameStats;
+import games.rednblack.editor.renderer.utils.FrameStatsRecorder;
 
 public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
 
@@ -16,6 +26,36 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
     private final BitVector disabledLogicSystems = new BitVector();
     private final BitVector disabledInterpolationSystems = new BitVector();
 
+    //Index of each system in the world, used to collect per system timings
+    private final IntArray renderSystemsIndices = new IntArray();
+    private final IntArray logicSystemsIndices = new IntArray();
+
+    private FrameStatsRecorder frameStats;
+    private EntityCommandBuffer commandBuffer;
+    private IncrementalEntityLoader incrementalLoader;
+
+    private CatchUpPolicy catchUpPolicy = CatchUpPolicy.CLAMP;
+    private long maxFrameTimeNanos = 18000000;
+    private int maxStepsPerFrame = 5;
+
+    //Time budget of each system, indexed as the world systems, 0 means no budget
+    private final ObjectLongMap<Class<? extends BaseSystem>> budgetsByType = new ObjectLongMap<>();
+    private long defaultBudgetNanos = 0;
+    private long[] budgets = new long[0];
+    private boolean budgetsEnabled = false;
+    private FrameBudgetListener budgetListener;
+    private long lastBudgetWarning = 0;
+
+    private long executedSteps = 0;
+    private long skippedSteps = 0;
+    private long dilatedNanos = 0;
+    private long overBudgetCount = 0;
+
+    //Parallel execution of logic systems, null when sequential
+    private int parallelism = 1;
+    private final ObjectMap<Class<?>, ParallelLogicScheduler.Access> declaredAccess = new ObjectMap<>();
+    private ParallelLogicScheduler scheduler;
+
     public static float TIME_STEP = 1f / 60f;
     public static long TIME_STEP_NANO = (long) (TIME_STEP * 1000000000);
     public static float INV_TIME_STEP_NANO = 1f / TIME_STEP_NANO;
@@ -29,49 +69,101 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
     private long currentTime = TimeUtils.nanoTime();
     private long accumulator = 0;
 
+    /**
+     * @deprecated entities created from other threads go through {@link EntityCommandBuffer}, the runtime doesn't take this lock anymore
+     */
+    @Deprecated
     public static final Object updateEntities = new Object();
 
     @Override
     protected void initialize() {
         for (int i = 0; i < systems.size(); i++) {
             BaseSystem rawSystem = systems.get(i);
-            if (rawSystem instanceof RendererSystem)
+            if (rawSystem instanceof RendererSystem) {
                 renderSystems.add(rawSystem);
-            else
+                renderSystemsIndices.add(i);
+            } else {
                 logicSystems.add(rawSystem);
+                logicSystemsIndices.add(i);
+            }
             if (rawSystem instanceof InterpolationSystem)
                 interpolationSystems.add((InterpolationSystem) rawSystem);
         }
+        updateBudgets();
+        updateScheduler();
     }
 
     @Override
     protected void process() {
         long newTime = TimeUtils.nanoTime();
-        long frameTime = Math.min(newTime - currentTime, 18000000);
+        long frameTime = newTime - currentTime;
         currentTime = newTime;
 
+        if (catchUpPolicy == CatchUpPolicy.CLAMP)
+            frameTime = Math.min(frameTime, maxFrameTimeNanos);
         accumulator += frameTime;
 
+        int steps = (int) Math.min(accumulator / TIME_STEP_NANO, Integer.MAX_VALUE);
+        int dropped = 0;
+        if (catchUpPolicy != CatchUpPolicy.CLAMP && steps > maxStepsPerFrame) {
+            int excess = steps - maxStepsPerFrame;
+            steps = maxStepsPerFrame;
+            if (catchUpPolicy == CatchUpPolicy.TIME_DILATION) {
+                //Excess steps stay in the accumulator for next frames, up to a frame worth of them
+                long discarded = Math.max(0, excess - maxStepsPerFrame) * TIME_STEP_NANO;
+                accumulator -= discarded;
+                dilatedNanos += discarded;
+            } else {
+                dropped = excess;
+                accumulator -= dropped * TIME_STEP_NANO;
+                skippedSteps += dropped;
+                if (budgetListener != null)
+                    budgetListener.stepsDropped(dropped);
+            }
+        }
+
         world.setDelta(TIME_STEP);
 
-        while (accumulator >= TIME_STEP_NANO) {
-            //Process logic systems
-            for (int i = 0, s = logicSystems.size(); s > i; i++) {
-                if (disabledLogicSystems.get(i))
-                    continue;
+        FrameStats stats = null;
+        if (frameStats != null && frameStats.isEnabled()) {
+            if (frameStats.getSystemNames().length != systems.size())
+                frameStats.setSystems(systems);
+            frameStats.beginFrame();
+            stats = frameStats.getCurrent();
+            stats.skippedSteps = dropped;
+        }
+        boolean timed = stats != null || budgetsEnabled;
+
+        if (commandBuffer != null)
+            commandBuffer.drain();
+        if (incrementalLoader != null)
+            incrementalLoader.step();
 
-                logicSystems.get(i).process();
+        for (int step = 0; step < steps; step++) {
+            //Process logic systems
+            if (scheduler != null) {
+                scheduler.processStep(stats, timed);
+            } else {
+                for (int i = 0, s = logicSystems.size(); s > i; i++) {
+                    processLogicSystem(i, stats, timed);
+                }
             }
 
+            if (stats != null)
+                stats.logicSteps++;
             accumulator -= TIME_STEP_NANO;
         }
+        executedSteps += steps;
+
+        long renderStart = stats != null ? TimeUtils.nanoTime() : 0;
 
         //interpolate accumulator data
         for (int i = 0, s = interpolationSystems.size(); s > i; i++) {
             if (disabledInterpolationSystems.get(i))
                 continue;
 
-            float alpha = accumulator * INV_TIME_STEP_NANO;
+            //Steps carried over by TIME_DILATION are still pending, render the last processed state
+            float alpha = Math.min(accumulator * INV_TIME_STEP_NANO, 1f);
             interpolationSystems.get(i).interpolate(alpha);
         }
 
@@ -80,18 +172,289 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
             if (disabledRenderSystems.get(i))
                 continue;
 
-            renderSystems.get(i).process();
+            if (timed) {
+                processTimed(renderSystems.get(i), renderSystemsIndices.get(i), stats);
+            } else {
+                renderSystems.get(i).process();
+            }
         }
 
-        updateEntitySateSync();
+        if (stats != null)
+            stats.renderNanos = TimeUtils.nanoTime() - renderStart;
+
+        updateEntityStates();
+
+        if (stats != null) {
+            stats.frameNanos = TimeUtils.nanoTime() - newTime;
+            frameStats.endFrame();
+        }
     }
 
-    private void updateEntitySateSync() {
-        synchronized (updateEntities) {
-            updateEntityStates();
+    /**
+     * Process a logic system on the calling thread
+     *
+     * @param i index of the system in the logic systems
+     */
+    void processLogicSystem(int i, FrameStats stats, boolean timed) {
+        if (disabledLogicSystems.get(i))
+            return;
+
+        if (timed) {
+            long time = processTimed(logicSystems.get(i), logicSystemsIndices.get(i), stats);
+            if (stats != null)
+                stats.logicNanos += time;
+        } else {
+            logicSystems.get(i).process();
         }
     }
 
+    /**
+     * Collect the timing of a logic system processed by a worker thread
+     *
+     * @param i index of the system in the logic systems
+     */
+    void accountLogicSystem(int i, long time, FrameStats stats) {
+        if (stats != null)
+            stats.logicNanos += time;
+        account(logicSystems.get(i), logicSystemsIndices.get(i), time, stats);
+    }
+
+    /**
+     * Process a system collecting its timing and checking its budget
+     *
+     * @param index index of the system in the world
+     * @return time spent by the system
+     */
+    private long processTimed(BaseSystem system, int index, FrameStats stats) {
+        long start = TimeUtils.nanoTime();
+        system.process();
+        long time = TimeUtils.nanoTime() - start;
+        account(system, index, time, stats);
+        return time;
+    }
+
+    private void account(BaseSystem system, int index, long time, FrameStats stats) {
+        if (stats != null)
+            stats.systemNanos[index] += time;
+
+        long budget = budgets[index];
+        if (budget > 0 && time > budget) {
+            overBudgetCount++;
+            if (stats != null)
+                stats.overBudget++;
+            if (budgetListener != null) {
+                budgetListener.budgetExceeded(system, time, budget);
+            } else if (Gdx.app != null && TimeUtils.nanoTime() - lastBudgetWarning > 1000000000L) {
+                //Without a listener warn at most once per second
+                lastBudgetWarning = TimeUtils.nanoTime();
+                Gdx.app.log("HyperLap2D", system.getClass().getSimpleName() + " took " + time / 1000 + "us, budget is " + budget / 1000 + "us");
+            }
+        }
+    }
+
+    /**
+     * Number of threads used to process logic systems, default 1.
+     * With more than 1 thread, consecutive logic systems declaring their accesses with {@link SystemAccess}
+     * run concurrently when they don't conflict. Rendering systems always run on the calling thread.
+     * <p>
+     * Parallel mode is off by default and pays off only with custom declared systems: in the default system set
+     * only LayerSystem, ParticleSystem and SpriteAnimationSystem overlap. PhysicsSystem and LightSystem touch Box2D
+     * and GL objects, ScriptSystem and ActionSystem run user code, and the transform, bounds and culling systems
+     * depend on each other in order, so they run alone.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be >= 1.");
+        this.parallelism = parallelism;
+        updateScheduler();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Declare the types read and written by a system, overrides its {@link SystemAccess} annotation.
+     */
+    public void declareAccess(Class<? extends BaseSystem> type, Class<?>[] reads, Class<?>[] writes) {
+        declaredAccess.put(type, new ParallelLogicScheduler.Access(reads, writes));
+        updateScheduler();
+    }
+
+    private void updateScheduler() {
+        if (scheduler != null) {
+            scheduler.dispose();
+            scheduler = null;
+        }
+        if (systems == null || parallelism < 2)
+            return;
+
+        ObjectMap<Class<?>, ParallelLogicScheduler.Access> accesses = new ObjectMap<>();
+        for (int i = 0; i < logicSystems.size(); i++) {
+            Class<? extends BaseSystem> type = logicSystems.get(i).getClass();
+            ParallelLogicScheduler.Access access = declaredAccess.get(type);
+            if (access == null) {
+                Annotation annotation = ClassReflection.getAnnotation(type, SystemAccess.class);
+                if (annotation != null) {
+                    SystemAccess systemAccess = annotation.getAnnotation(SystemAccess.class);
+                    access = new ParallelLogicScheduler.Access(systemAccess.reads(), systemAccess.writes());
+                }
+            }
+            if (access != null)
+                accesses.put(type, access);
+        }
+        scheduler = new ParallelLogicScheduler(this, logicSystems, disabledLogicSystems, accesses, parallelism);
+    }
+
+    /**
+     * Release the worker threads used by parallel logic systems
+     */
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.dispose();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Set what to do when the logic falls behind real time, default {@link CatchUpPolicy#CLAMP}
+     */
+    public void setCatchUpPolicy(CatchUpPolicy catchUpPolicy) {
+        this.catchUpPolicy = catchUpPolicy;
+    }
+
+    public CatchUpPolicy getCatchUpPolicy() {
+        return catchUpPolicy;
+    }
+
+    /**
+     * Max frame time accounted by {@link CatchUpPolicy#CLAMP}, default 18ms
+     */
+    public void setMaxFrameTime(long nanos) {
+        this.maxFrameTimeNanos = nanos;
+    }
+
+    public long getMaxFrameTime() {
+        return maxFrameTimeNanos;
+    }
+
+    /**
+     * Max logic steps processed in a single frame by {@link CatchUpPolicy#TIME_DILATION}
+     * and {@link CatchUpPolicy#DROP_AND_REPORT}, default 5
+     */
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        if (maxStepsPerFrame < 1) throw new IllegalArgumentException("Max steps per frame must be >= 1.");
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * Time budget of a single process call of a system, exceeding it notifies the {@link FrameBudgetListener}
+     * or logs a warning if there is none.
+     *
+     * @param nanos budget, 0 to remove it
+     */
+    public void setSystemBudget(Class<? extends BaseSystem> type, long nanos) {
+        if (nanos > 0)
+            budgetsByType.put(type, nanos);
+        else
+            budgetsByType.remove(type, 0);
+        updateBudgets();
+    }
+
+    /**
+     * Budget of the systems without a specific one, 0 to disable
+     */
+    public void setDefaultSystemBudget(long nanos) {
+        this.defaultBudgetNanos = Math.max(0, nanos);
+        updateBudgets();
+    }
+
+    public void setFrameBudgetListener(FrameBudgetListener budgetListener) {
+        this.budgetListener = budgetListener;
+    }
+
+    private void updateBudgets() {
+        if (systems == null)
+            return;
+        if (budgets.length != systems.size())
+            budgets = new long[systems.size()];
+
+        budgetsEnabled = false;
+        for (int i = 0; i < systems.size(); i++) {
+            budgets[i] = budgetsByType.get(systems.get(i).getClass(), defaultBudgetNanos);
+            if (budgets[i] > 0)
+                budgetsEnabled = true;
+        }
+    }
+
+    /**
+     * @return logic steps processed since the start
+     */
+    public long getExecutedSteps() {
+        return executedSteps;
+    }
+
+    /**
+     * @return logic steps dropped by {@link CatchUpPolicy#DROP_AND_REPORT} since the start
+     */
+    public long getSkippedSteps() {
+        return skippedSteps;
+    }
+
+    /**
+     * @return time discarded by {@link CatchUpPolicy#TIME_DILATION} since the start, game time is behind
+     * real time by this amount plus the steps still carried over
+     */
+    public long getDilatedNanos() {
+        return dilatedNanos;
+    }
+
+    /**
+     * @return number of system process calls that exceeded their budget since the start
+     */
+    public long getOverBudgetCount() {
+        return overBudgetCount;
+    }
+
+    public void resetCounters() {
+        executedSteps = 0;
+        skippedSteps = 0;
+        dilatedNanos = 0;
+        overBudgetCount = 0;
+    }
+
+    /**
+     * Set the recorder used to collect per frame statistics, can be null
+     */
+    public void setFrameStats(FrameStatsRecorder frameStats) {
+        this.frameStats = frameStats;
+    }
+
+    public FrameStatsRecorder getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Set the buffer of entity creation commands drained at the start of each frame, can be null
+     */
+    public void setCommandBuffer(EntityCommandBuffer commandBuffer) {
+        if (this.commandBuffer != null)
+            this.commandBuffer.setDrainedEachFrame(false);
+        this.commandBuffer = commandBuffer;
+        if (commandBuffer != null)
+            commandBuffer.setDrainedEachFrame(true);
+    }
+
+    /**
+     * Set the loader of composite trees stepped at the start of each frame, can be null
+     */
+    public void setIncrementalLoader(IncrementalEntityLoader incrementalLoader) {
+        this.incrementalLoader = incrementalLoader;
+    }
+
     @Override
     public boolean isEnabled(BaseSystem target) {
         Bag<BaseSystem> checkSystems = (target instanceof RendererSystem) ? renderSystems : logicSystems;
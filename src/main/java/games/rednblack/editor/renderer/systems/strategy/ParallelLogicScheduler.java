@@ -0,0 +1,204 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import com.artemis.BaseSystem;
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitVector;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.TimeUtils;
+import games.rednblack.editor.renderer.utils.FrameStats;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Run a logic step of {@link HyperLap2dInvocationStrategy} on a worker pool.
+ * Logic systems are split in segments of consecutive systems with a {@link SystemAccess} declaration,
+ * inside a segment a system starts as soon as all the previous systems it conflicts with are done
+ * (one writes a type the other reads or writes), so the declared order is kept for dependent systems.
+ * Systems without a declaration are barriers and run alone on the calling thread.
+ */
+class ParallelLogicScheduler {
+
+    /**
+     * Types read and written by a system
+     */
+    static class Access {
+        final ObjectSet<Class<?>> reads = new ObjectSet<>();
+        final ObjectSet<Class<?>> writes = new ObjectSet<>();
+
+        Access(Class<?>[] reads, Class<?>[] writes) {
+            this.reads.addAll(reads);
+            this.writes.addAll(writes);
+        }
+
+        boolean conflicts(Access other) {
+            for (Class<?> type : writes) {
+                if (other.reads.contains(type) || other.writes.contains(type))
+                    return true;
+            }
+            for (Class<?> type : other.writes) {
+                if (reads.contains(type))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private final HyperLap2dInvocationStrategy strategy;
+    private final Bag<BaseSystem> systems;
+    private final BitVector disabled;
+    private final ForkJoinPool pool;
+
+    private final boolean[] barriers;
+    //Later systems of the same segment waiting for each system
+    private final int[][] dependents;
+    private final int[] dependencies;
+
+    private final AtomicIntegerArray pending;
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final SystemTask[] tasks;
+    private final long[] nanos;
+    private final Object lock = new Object();
+    private volatile boolean timed;
+    private volatile Throwable failure;
+
+    ParallelLogicScheduler(HyperLap2dInvocationStrategy strategy, Bag<BaseSystem> systems, BitVector disabled,
+                           ObjectMap<Class<?>, Access> declarations, int parallelism) {
+        this.strategy = strategy;
+        this.systems = systems;
+        this.disabled = disabled;
+        pool = new ForkJoinPool(parallelism);
+
+        int size = systems.size();
+        barriers = new boolean[size];
+        dependents = new int[size][];
+        dependencies = new int[size];
+        pending = new AtomicIntegerArray(size);
+        tasks = new SystemTask[size];
+        nanos = new long[size];
+
+        Access[] accesses = new Access[size];
+        for (int i = 0; i < size; i++) {
+            accesses[i] = declarations.get(systems.get(i).getClass());
+            barriers[i] = accesses[i] == null;
+            tasks[i] = new SystemTask(i);
+        }
+
+        IntArray tmp = new IntArray();
+        for (int i = 0; i < size; i++) {
+            tmp.clear();
+            for (int j = i + 1; j < size && !barriers[i] && !barriers[j]; j++) {
+                if (accesses[i].conflicts(accesses[j])) {
+                    tmp.add(j);
+                    dependencies[j]++;
+                }
+            }
+            dependents[i] = tmp.toArray();
+        }
+    }
+
+    /**
+     * Process all the logic systems once and wait for them to complete
+     */
+    void processStep(FrameStats stats, boolean timed) {
+        int size = systems.size();
+        for (int i = 0; i < size; ) {
+            int end = i + 1;
+            if (!barriers[i]) {
+                while (end < size && !barriers[end])
+                    end++;
+            }
+
+            if (end - i == 1) {
+                strategy.processLogicSystem(i, stats, timed);
+            } else {
+                processSegment(i, end, stats, timed);
+            }
+            i = end;
+        }
+    }
+
+    private void processSegment(int start, int end, FrameStats stats, boolean timed) {
+        this.timed = timed;
+        failure = null;
+        for (int i = start; i < end; i++) {
+            pending.set(i, dependencies[i]);
+        }
+        remaining.set(end - start);
+
+        for (int i = start; i < end; i++) {
+            if (dependencies[i] == 0)
+                pool.execute(tasks[i]);
+        }
+
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (remaining.get() > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+            throw new RuntimeException(error);
+        }
+
+        if (timed) {
+            for (int i = start; i < end; i++) {
+                if (!disabled.get(i))
+                    strategy.accountLogicSystem(i, nanos[i], stats);
+            }
+        }
+    }
+
+    void dispose() {
+        pool.shutdown();
+    }
+
+    private class SystemTask implements Runnable {
+        final int index;
+
+        SystemTask(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!disabled.get(index)) {
+                    if (timed) {
+                        long start = TimeUtils.nanoTime();
+                        systems.get(index).process();
+                        nanos[index] = TimeUtils.nanoTime() - start;
+                    } else {
+                        systems.get(index).process();
+                    }
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                for (int dependent : dependents[index]) {
+                    if (pending.decrementAndGet(dependent) == 0)
+                        pool.execute(tasks[dependent]);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    synchronized (lock) {
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import java.lang.annotation.*;
+
+/**
+ * Declare the components, or any other shared object type, read and written by a logic system.
+ * When {@link HyperLap2dInvocationStrategy#setParallelism(int)} is greater than 1, consecutive declared systems
+ * that don't conflict run concurrently on worker threads, so they must not create or delete entities,
+ * add or remove components, or touch GL state. Systems without this annotation always run alone on the world thread.
+ * <pre>
+ * &#64;SystemAccess(reads = SpriteAnimationComponent.class, writes = {TextureRegionComponent.class, SpriteAnimationStateComponent.class})
+ * public class SpriteAnimationSystem extends IteratingSystem
+ * </pre>
+ * Declarations can also be given with {@link HyperLap2dInvocationStrategy#declareAccess(Class, Class[], Class[])}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+@Documented
+public @interface SystemAccess {
+    Class<?>[] reads() default {};
+
+    Class<?>[] writes() default {};
+}
@@ -85,7 +85,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
      * @see SpriteBatch#flush()
      */
     public void flushAndSyncTransformMatrix() {
-        flush();
+        flush(FLUSH_MATRIX);
 
         if (adjustNeeded) {
             // vertices flushed, safe now to replace matrix
@@ -187,7 +187,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
                 switchTexture(texture);
             else if (triangleIndex + regionTrianglesLength > triangles.length
                     || vertexIndex + regionVerticesLength > vertices.length)
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             int vertexIndex = this.vertexIndex;
@@ -235,7 +235,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
                 switchTexture(texture);
             else if (triangleIndex + regionTrianglesLength > triangles.length
                     || vertexIndex + regionVerticesLength + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length)
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             int vertexIndex = this.vertexIndex;
@@ -292,7 +292,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
                 switchTexture(texture);
             else if (triangleIndex + regionTrianglesLength > triangles.length
                     || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length)
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             int vertexIndex = this.vertexIndex;
@@ -337,7 +337,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -402,7 +402,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -548,7 +548,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -611,7 +611,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -670,7 +670,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -744,7 +744,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -812,7 +812,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + trianglesCount > triangles.length || vertexIndex + verticesCount > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int vertexIndex = this.vertexIndex;
@@ -856,7 +856,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
                 batch = Math.min(Math.min(count, vertices.length - (vertices.length % SPRITE_SIZE)), triangles.length / 6 * SPRITE_SIZE);
                 triangleCount = batch / SPRITE_SIZE * 6;
             } else if (triangleIndex + triangleCount > triangles.length || vertexIndex + count > vertices.length) {
-                flush();
+                flush(FLUSH_FULL);
                 batch = Math.min(Math.min(count, vertices.length - (vertices.length % SPRITE_SIZE)), triangles.length / 6 * SPRITE_SIZE);
                 triangleCount = batch / SPRITE_SIZE * 6;
             } else
@@ -894,7 +894,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
                 count -= batch;
                 if (count == 0) break;
                 offset += batch;
-                flush();
+                flush(FLUSH_FULL);
                 vertexIndex = 0;
                 if (batch > count) {
                     batch = Math.min(count, triangles.length / 6 * SPRITE_SIZE);
@@ -918,7 +918,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -991,7 +991,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -1055,7 +1055,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -1191,7 +1191,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -1342,7 +1342,7 @@ public class CpuPolygonSpriteBatch extends PolygonSpriteBatch {
             if (texture != lastTexture)
                 switchTexture(texture);
             else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-                flush();
+                flush(FLUSH_FULL);
 
             int triangleIndex = this.triangleIndex;
             final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -0,0 +1,108 @@
+package games.rednblack.editor.renderer.utils;
+
+import java.util.Arrays;
+
+/**
+ * Counters collected during a single frame by {@link FrameStatsRecorder}.
+ * All times are in nanoseconds.
+ */
+public class FrameStats {
+    /** Progressive number of the recorded frame */
+    public long frame;
+
+    /** Time spent in the whole invocation strategy */
+    public long frameNanos;
+    /** Time spent in logic systems, for all the fixed steps of the frame */
+    public long logicNanos;
+    /** Time spent in interpolation and rendering systems */
+    public long renderNanos;
+    /** Number of fixed logic steps processed in the frame */
+    public int logicSteps;
+    /** Fixed logic steps dropped or dilated by the catch up policy */
+    public int skippedSteps;
+    /** System process calls that exceeded their time budget */
+    public int overBudget;
+    /** Time spent in each system, indexed as {@link FrameStatsRecorder#getSystemNames()} */
+    public long[] systemNanos = new long[0];
+
+    /** Entities drawn by the renderer, composites are not counted */
+    public int entitiesDrawn;
+    /** Visible entities skipped because culled */
+    public int entitiesCulled;
+
+    /** Batch render calls, available only with {@link PolygonSpriteBatch} */
+    public int renderCalls;
+    /** Batch render calls by cause, indexed by {@link PolygonSpriteBatch} FLUSH_* constants */
+    public final int[] flushes = new int[PolygonSpriteBatch.FLUSH_CAUSES];
+    /** Frame buffer binds and unbinds done by the renderer */
+    public int fboSwitches;
+
+    /** Lights that passed culling and have been rendered */
+    public int lightsRendered;
+    /** Rays cast against box2d world by lights */
+    public long raysCast;
+
+    /** Growth of the used heap during the frame, approximation of allocated memory, 0 if a GC happened */
+    public long allocatedBytes;
+
+    public void set(FrameStats stats) {
+        frame = stats.frame;
+        frameNanos = stats.frameNanos;
+        logicNanos = stats.logicNanos;
+        renderNanos = stats.renderNanos;
+        logicSteps = stats.logicSteps;
+        skippedSteps = stats.skippedSteps;
+        overBudget = stats.overBudget;
+        if (systemNanos.length != stats.systemNanos.length)
+            systemNanos = new long[stats.systemNanos.length];
+        System.arraycopy(stats.systemNanos, 0, systemNanos, 0, systemNanos.length);
+        entitiesDrawn = stats.entitiesDrawn;
+        entitiesCulled = stats.entitiesCulled;
+        renderCalls = stats.renderCalls;
+        System.arraycopy(stats.flushes, 0, flushes, 0, flushes.length);
+        fboSwitches = stats.fboSwitches;
+        lightsRendered = stats.lightsRendered;
+        raysCast = stats.raysCast;
+        allocatedBytes = stats.allocatedBytes;
+    }
+
+    public void reset() {
+        frame = 0;
+        frameNanos = 0;
+        logicNanos = 0;
+        renderNanos = 0;
+        logicSteps = 0;
+        skippedSteps = 0;
+        overBudget = 0;
+        Arrays.fill(systemNanos, 0);
+        entitiesDrawn = 0;
+        entitiesCulled = 0;
+        renderCalls = 0;
+        Arrays.fill(flushes, 0);
+        fboSwitches = 0;
+        lightsRendered = 0;
+        raysCast = 0;
+        allocatedBytes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{" +
+                "frame=" + frame +
+                ", frameNanos=" + frameNanos +
+                ", logicNanos=" + logicNanos +
+                ", renderNanos=" + renderNanos +
+                ", logicSteps=" + logicSteps +
+                ", skippedSteps=" + skippedSteps +
+                ", overBudget=" + overBudget +
+                ", entitiesDrawn=" + entitiesDrawn +
+                ", entitiesCulled=" + entitiesCulled +
+                ", renderCalls=" + renderCalls +
+                ", flushes=" + Arrays.toString(flushes) +
+                ", fboSwitches=" + fboSwitches +
+                ", lightsRendered=" + lightsRendered +
+                ", raysCast=" + raysCast +
+                ", allocatedBytes=" + allocatedBytes +
+                '}';
+    }
+}
@@ -0,0 +1,176 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.artemis.BaseSystem;
+import com.artemis.utils.Bag;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import games.rednblack.editor.renderer.box2dLight.RayHandler;
+
+/**
+ * Collect {@link FrameStats} of each frame and keep the last ones in a ring buffer.
+ * Disabled by default, when disabled no timing is taken and the cost is a boolean check per frame.
+ * <pre>
+ * sceneLoader.getFrameStats().setEnabled(true);
+ * ...
+ * FrameStats last = sceneLoader.getFrameStats().getLatest();
+ * </pre>
+ */
+public class FrameStatsRecorder {
+    public static final int DEFAULT_CAPACITY = 120;
+
+    private final FrameStats[] frames;
+    private int head = -1;
+    private int size = 0;
+    private long frameCount = 0;
+
+    private final FrameStats current = new FrameStats();
+    private boolean enabled = false;
+
+    private String[] systemNames = new String[0];
+
+    private Batch batch;
+    private RayHandler rayHandler;
+    private final Runtime runtime = Runtime.getRuntime();
+
+    private int startRenderCalls;
+    private final int[] startFlushes = new int[PolygonSpriteBatch.FLUSH_CAUSES];
+    private long startRaysCast;
+    private long startHeap;
+
+    public FrameStatsRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of frames kept in history
+     */
+    public FrameStatsRecorder(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be >= 1.");
+        frames = new FrameStats[capacity];
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new FrameStats();
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public void setRayHandler(RayHandler rayHandler) {
+        this.rayHandler = rayHandler;
+    }
+
+    /**
+     * Register the systems whose timing will be collected in {@link FrameStats#systemNanos}
+     */
+    public void setSystems(Bag<BaseSystem> systems) {
+        systemNames = new String[systems.size()];
+        for (int i = 0; i < systems.size(); i++) {
+            systemNames[i] = systems.get(i).getClass().getSimpleName();
+        }
+        current.systemNanos = new long[systemNames.length];
+    }
+
+    public String[] getSystemNames() {
+        return systemNames;
+    }
+
+    /**
+     * Start collecting a new frame, called by the invocation strategy
+     */
+    public void beginFrame() {
+        current.reset();
+        current.frame = frameCount;
+
+        if (batch instanceof PolygonSpriteBatch) {
+            PolygonSpriteBatch polygonSpriteBatch = (PolygonSpriteBatch) batch;
+            startRenderCalls = polygonSpriteBatch.totalRenderCalls;
+            System.arraycopy(polygonSpriteBatch.totalFlushes, 0, startFlushes, 0, startFlushes.length);
+        }
+        if (rayHandler != null)
+            startRaysCast = rayHandler.getRaysCast();
+        startHeap = runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Close the current frame and store it in history, called by the invocation strategy
+     */
+    public void endFrame() {
+        if (batch instanceof PolygonSpriteBatch) {
+            PolygonSpriteBatch polygonSpriteBatch = (PolygonSpriteBatch) batch;
+            current.renderCalls = polygonSpriteBatch.totalRenderCalls - startRenderCalls;
+            for (int i = 0; i < startFlushes.length; i++) {
+                current.flushes[i] = polygonSpriteBatch.totalFlushes[i] - startFlushes[i];
+            }
+        }
+        if (rayHandler != null)
+            current.raysCast = rayHandler.getRaysCast() - startRaysCast;
+        current.allocatedBytes = Math.max(0, runtime.totalMemory() - runtime.freeMemory() - startHeap);
+
+        head = (head + 1) % frames.length;
+        frames[head].set(current);
+        if (size < frames.length)
+            size++;
+        frameCount++;
+    }
+
+    /**
+     * Stats of the frame in progress, renderer and systems can add their counters here
+     */
+    public FrameStats getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return stats of the last completed frame, or null if no frames have been recorded
+     */
+    public FrameStats getLatest() {
+        return getFrame(0);
+    }
+
+    /**
+     * @param age 0 for the last completed frame, 1 for the previous one and so on
+     * @return recorded stats or null if the frame is not in history anymore
+     */
+    public FrameStats getFrame(int age) {
+        if (age < 0 || age >= size)
+            return null;
+        return frames[(head - age + frames.length) % frames.length];
+    }
+
+    /**
+     * @return number of frames in history
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    /**
+     * @return average frame time of the frames in history
+     */
+    public long getAverageFrameNanos() {
+        if (size == 0)
+            return 0;
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += getFrame(i).frameNanos;
+        }
+        return total / size;
+    }
+
+    public void clear() {
+        head = -1;
+        size = 0;
+    }
+}
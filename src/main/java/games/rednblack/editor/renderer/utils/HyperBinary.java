@@ -0,0 +1,654 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.reflect.ArrayReflection;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary serialization of scene and project data, faster to load and smaller than {@link HyperJson}.
+ * <p>
+ * Layout: magic, format {@link #VERSION}, crc of the source json file, string table, class table with the field names
+ * of every serialized class, then the root value. Every string (names, identifiers, text) is stored once and referenced by index,
+ * numbers are stored as raw floats or variable length ints, arrays of {@link Vector2} such as polygon vertices
+ * are packed floats. Values are tagged with their type, so fields that don't exist anymore are skipped
+ * the same way {@link HyperJson} ignores unknown fields, and files survive changes to the data classes.
+ * <p>
+ * Serialized fields are the same of {@link com.badlogic.gdx.utils.Json}: all non static and non transient fields.
+ * Instances aren't thread safe, use one per thread.
+ * <p>
+ * The source crc lets readers detect binary files older than the json they were converted from,
+ * see {@link #fromFile(Class, FileHandle, FileHandle)}.
+ */
+public class HyperBinary {
+    public static final int MAGIC = 0x48324442; //H2DB
+    public static final int VERSION = 2;
+    public static final String EXTENSION = ".dtb";
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte FLOAT = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte STRING = 7;
+    private static final byte ENUM = 8;
+    private static final byte OBJECT = 9;
+    private static final byte FLOAT_ARRAY = 10;
+    private static final byte INT_ARRAY = 11;
+    private static final byte OBJECT_ARRAY = 12;
+    private static final byte ARRAY = 13;
+    private static final byte LIST = 14;
+    private static final byte OBJECT_MAP = 15;
+    private static final byte HASH_MAP = 16;
+    private static final byte HASH_SET = 17;
+    private static final byte VECTOR2 = 18;
+    private static final byte VECTOR2_ARRAY = 19;
+    private static final byte VECTOR2_ARRAY_2D = 20;
+
+    private final ObjectMap<Class<?>, ClassInfo> classInfos = new ObjectMap<>();
+
+    // Write state
+    private final ObjectIntMap<String> stringIds = new ObjectIntMap<>();
+    private final Array<String> strings = new Array<>();
+    private final ObjectIntMap<Class<?>> classIds = new ObjectIntMap<>();
+    private final Array<Class<?>> classes = new Array<>();
+    private final ObjectSet<Class<?>> classesWithFields = new ObjectSet<>();
+    private Output out;
+
+    // Read state
+    private String[] readStrings;
+    private Class<?>[] readTypes;
+    private Field[][] readFields;
+    private byte[] data;
+    private int position;
+
+    public byte[] toBytes(Object object) {
+        return toBytes(object, 0);
+    }
+
+    /**
+     * @param sourceChecksum {@link #checksum(byte[])} of the json data, 0 if there isn't a source file
+     */
+    public byte[] toBytes(Object object, int sourceChecksum) {
+        try {
+            out = new Output(4096);
+            writeValue(object);
+            Output body = out;
+
+            out = new Output(1024 + body.size);
+            out.writeInt(MAGIC);
+            out.writeVarInt(VERSION);
+            out.writeInt(sourceChecksum);
+            out.writeVarInt(strings.size);
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeVarInt(bytes.length);
+                out.writeBytes(bytes, 0, bytes.length);
+            }
+            out.writeVarInt(classes.size);
+            for (Class<?> type : classes) {
+                out.writeVarInt(stringIds.get(type.getName(), -1));
+                if (classesWithFields.contains(type)) {
+                    Field[] fields = getClassInfo(type).fields;
+                    out.writeVarInt(fields.length);
+                    for (Field field : fields) {
+                        out.writeVarInt(stringIds.get(field.getName(), -1));
+                    }
+                } else {
+                    out.writeVarInt(0);
+                }
+            }
+            out.writeBytes(body.bytes, 0, body.size);
+            return out.toArray();
+        } finally {
+            out = null;
+            stringIds.clear();
+            strings.clear();
+            classIds.clear();
+            classes.clear();
+            classesWithFields.clear();
+        }
+    }
+
+    public void toFile(Object object, FileHandle file) {
+        file.writeBytes(toBytes(object), false);
+    }
+
+    public void toFile(Object object, FileHandle file, int sourceChecksum) {
+        file.writeBytes(toBytes(object, sourceChecksum), false);
+    }
+
+    public <T> T fromBytes(Class<T> type, byte[] bytes) {
+        data = bytes;
+        position = 0;
+        try {
+            if (readInt() != MAGIC)
+                throw new GdxRuntimeException("Not a HyperLap2D binary file.");
+            int version = readVarInt();
+            if (version > VERSION)
+                throw new GdxRuntimeException("Unsupported binary format version " + version + ", max supported is " + VERSION + ".");
+            if (version > 1)
+                readInt(); //Source checksum
+
+            readStrings = new String[readVarInt()];
+            for (int i = 0; i < readStrings.length; i++) {
+                int length = readVarInt();
+                readStrings[i] = new String(data, position, length, StandardCharsets.UTF_8);
+                position += length;
+            }
+
+            int classCount = readVarInt();
+            readTypes = new Class<?>[classCount];
+            readFields = new Field[classCount][];
+            for (int i = 0; i < classCount; i++) {
+                String name = readStrings[readVarInt()];
+                Field[] fields = new Field[readVarInt()];
+                ClassInfo info = null;
+                try {
+                    readTypes[i] = ClassReflection.forName(name);
+                    if (fields.length > 0)
+                        info = getClassInfo(readTypes[i]);
+                } catch (ReflectionException e) {
+                    //Class doesn't exist anymore, its values are skipped
+                }
+                for (int f = 0; f < fields.length; f++) {
+                    String fieldName = readStrings[readVarInt()];
+                    fields[f] = info != null ? info.fieldsByName.get(fieldName) : null;
+                }
+                readFields[i] = fields;
+            }
+
+            Object root = readValue();
+            if (root != null && !ClassReflection.isInstance(type, root))
+                throw new GdxRuntimeException("Binary data contains " + root.getClass().getName() + ", expected " + type.getName() + ".");
+            @SuppressWarnings("unchecked")
+            T result = (T) root;
+            return result;
+        } catch (IndexOutOfBoundsException e) {
+            throw new GdxRuntimeException("Corrupted binary data.", e);
+        } finally {
+            data = null;
+            readStrings = null;
+            readTypes = null;
+            readFields = null;
+        }
+    }
+
+    public <T> T fromFile(Class<T> type, FileHandle file) {
+        return fromBytes(type, file.readBytes());
+    }
+
+    /**
+     * Read a binary file only if it's up to date with the json file it was converted from. When the source file
+     * doesn't exist the binary one is always read, otherwise checksums must match: files written before the
+     * source checksum was stored, or without it, are considered stale.
+     *
+     * @return null if the binary file is stale and the source should be parsed instead
+     */
+    public <T> T fromFile(Class<T> type, FileHandle file, FileHandle source) {
+        byte[] bytes = file.readBytes();
+        if (source.exists() && !matchesSource(bytes, checksum(source.readBytes())))
+            return null;
+        return fromBytes(type, bytes);
+    }
+
+    /**
+     * Crc of the json data a binary file is converted from
+     */
+    public static int checksum(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return (int) crc.getValue();
+    }
+
+    private boolean matchesSource(byte[] bytes, int sourceChecksum) {
+        data = bytes;
+        position = 0;
+        try {
+            if (readInt() != MAGIC)
+                throw new GdxRuntimeException("Not a HyperLap2D binary file.");
+            int version = readVarInt();
+            return version > 1 && version <= VERSION && readInt() == sourceChecksum;
+        } catch (IndexOutOfBoundsException e) {
+            throw new GdxRuntimeException("Corrupted binary data.", e);
+        } finally {
+            data = null;
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeVarInt(stringId((String) value));
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INT);
+            out.writeVarInt(zigZag(((Number) value).intValue()));
+        } else if (value instanceof Character) {
+            out.writeByte(INT);
+            out.writeVarInt(zigZag((Character) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            out.writeVarInt(classId(((Enum<?>) value).getDeclaringClass(), false));
+            out.writeVarInt(stringId(((Enum<?>) value).name()));
+        } else if (value instanceof float[]) {
+            float[] array = (float[]) value;
+            out.writeByte(FLOAT_ARRAY);
+            out.writeVarInt(array.length);
+            for (float f : array) out.writeFloat(f);
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            out.writeByte(INT_ARRAY);
+            out.writeVarInt(array.length);
+            for (int i : array) out.writeVarInt(zigZag(i));
+        } else if (value instanceof Vector2[][]) {
+            Vector2[][] polygons = (Vector2[][]) value;
+            out.writeByte(VECTOR2_ARRAY_2D);
+            out.writeVarInt(polygons.length);
+            for (Vector2[] polygon : polygons) {
+                out.writeVarInt(polygon.length);
+                for (Vector2 vertex : polygon) {
+                    out.writeFloat(vertex.x);
+                    out.writeFloat(vertex.y);
+                }
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            Class<?> componentType = value.getClass().getComponentType();
+            if (componentType.isArray())
+                throw new GdxRuntimeException("Unsupported type: " + value.getClass().getName());
+            out.writeByte(OBJECT_ARRAY);
+            out.writeVarInt(classId(componentType, false));
+            out.writeVarInt(array.length);
+            for (Object o : array) writeValue(o);
+        } else if (value instanceof Vector2) {
+            out.writeByte(VECTOR2);
+            out.writeFloat(((Vector2) value).x);
+            out.writeFloat(((Vector2) value).y);
+        } else if (value instanceof Array) {
+            Array<?> array = (Array<?>) value;
+            if (isVector2Array(array)) {
+                out.writeByte(VECTOR2_ARRAY);
+                out.writeVarInt(array.size);
+                for (int i = 0; i < array.size; i++) {
+                    Vector2 vertex = (Vector2) array.get(i);
+                    out.writeFloat(vertex.x);
+                    out.writeFloat(vertex.y);
+                }
+            } else {
+                out.writeByte(ARRAY);
+                out.writeVarInt(array.size);
+                for (int i = 0; i < array.size; i++) writeValue(array.get(i));
+            }
+        } else if (value instanceof ObjectMap) {
+            ObjectMap<?, ?> map = (ObjectMap<?, ?>) value;
+            out.writeByte(OBJECT_MAP);
+            out.writeVarInt(map.size);
+            for (ObjectMap.Entry<?, ?> entry : new ObjectMap.Entries<>(map)) {
+                writeValue(entry.key);
+                writeValue(entry.value);
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeVarInt(list.size());
+            for (int i = 0, n = list.size(); i < n; i++) writeValue(list.get(i));
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(HASH_MAP);
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        } else if (value instanceof Set) {
+            Set<?> set = (Set<?>) value;
+            out.writeByte(HASH_SET);
+            out.writeVarInt(set.size());
+            for (Object o : set) writeValue(o);
+        } else {
+            out.writeByte(OBJECT);
+            out.writeVarInt(classId(value.getClass(), true));
+            try {
+                for (Field field : getClassInfo(value.getClass()).fields) {
+                    writeValue(field.get(value));
+                }
+            } catch (ReflectionException e) {
+                throw new GdxRuntimeException("Error writing " + value.getClass().getName(), e);
+            }
+        }
+    }
+
+    private static boolean isVector2Array(Array<?> array) {
+        if (array.size == 0)
+            return false;
+        for (int i = 0; i < array.size; i++) {
+            if (!(array.get(i) instanceof Vector2))
+                return false;
+        }
+        return true;
+    }
+
+    private Object readValue() {
+        byte tag = data[position++];
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                return unZigZag(readVarInt());
+            case LONG:
+                return readLong();
+            case FLOAT:
+                return readFloat();
+            case DOUBLE:
+                return Double.longBitsToDouble(readLong());
+            case STRING:
+                return readStrings[readVarInt()];
+            case ENUM: {
+                Class<?> type = readTypes[readVarInt()];
+                String name = readStrings[readVarInt()];
+                if (type == null)
+                    return null;
+                for (Object constant : ClassReflection.getEnumConstants(type)) {
+                    if (((Enum<?>) constant).name().equals(name))
+                        return constant;
+                }
+                return null;
+            }
+            case FLOAT_ARRAY: {
+                float[] array = new float[readVarInt()];
+                for (int i = 0; i < array.length; i++) array[i] = readFloat();
+                return array;
+            }
+            case INT_ARRAY: {
+                int[] array = new int[readVarInt()];
+                for (int i = 0; i < array.length; i++) array[i] = unZigZag(readVarInt());
+                return array;
+            }
+            case OBJECT_ARRAY: {
+                Class<?> componentType = readTypes[readVarInt()];
+                int length = readVarInt();
+                Object[] array = (Object[]) ArrayReflection.newInstance(componentType != null ? componentType : Object.class, length);
+                for (int i = 0; i < length; i++) {
+                    Object value = readValue();
+                    if (value == null || ClassReflection.isInstance(array.getClass().getComponentType(), value))
+                        array[i] = value;
+                }
+                return array;
+            }
+            case ARRAY: {
+                int size = readVarInt();
+                Array<Object> array = new Array<>(size);
+                for (int i = 0; i < size; i++) array.add(readValue());
+                return array;
+            }
+            case LIST: {
+                int size = readVarInt();
+                ArrayList<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue());
+                return list;
+            }
+            case OBJECT_MAP: {
+                int size = readVarInt();
+                ObjectMap<Object, Object> map = new ObjectMap<>(Math.max(1, size));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue();
+                    Object value = readValue();
+                    if (key != null) map.put(key, value);
+                }
+                return map;
+            }
+            case HASH_MAP: {
+                int size = readVarInt();
+                HashMap<Object, Object> map = new HashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue();
+                    map.put(key, readValue());
+                }
+                return map;
+            }
+            case HASH_SET: {
+                int size = readVarInt();
+                HashSet<Object> set = new HashSet<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) set.add(readValue());
+                return set;
+            }
+            case VECTOR2:
+                return new Vector2(readFloat(), readFloat());
+            case VECTOR2_ARRAY: {
+                int size = readVarInt();
+                Array<Vector2> array = new Array<>(true, size, Vector2.class);
+                for (int i = 0; i < size; i++) array.add(new Vector2(readFloat(), readFloat()));
+                return array;
+            }
+            case VECTOR2_ARRAY_2D: {
+                Vector2[][] polygons = new Vector2[readVarInt()][];
+                for (int p = 0; p < polygons.length; p++) {
+                    Vector2[] polygon = new Vector2[readVarInt()];
+                    for (int i = 0; i < polygon.length; i++) polygon[i] = new Vector2(readFloat(), readFloat());
+                    polygons[p] = polygon;
+                }
+                return polygons;
+            }
+            case OBJECT:
+                return readObject();
+            default:
+                throw new GdxRuntimeException("Corrupted binary data, unknown tag " + tag + " at " + (position - 1) + ".");
+        }
+    }
+
+    private Object readObject() {
+        int id = readVarInt();
+        Class<?> type = readTypes[id];
+        Field[] fields = readFields[id];
+
+        Object object = null;
+        if (type != null) {
+            try {
+                object = ClassReflection.newInstance(type);
+            } catch (ReflectionException e) {
+                throw new GdxRuntimeException("Error creating " + type.getName(), e);
+            }
+        }
+
+        for (Field field : fields) {
+            Object value = readValue();
+            if (object != null && field != null)
+                setField(object, field, value);
+        }
+        return object;
+    }
+
+    private static void setField(Object object, Field field, Object value) {
+        Class<?> type = field.getType();
+        try {
+            if (type.isPrimitive()) {
+                if (value instanceof Number) {
+                    Number number = (Number) value;
+                    if (type == float.class) field.set(object, number.floatValue());
+                    else if (type == int.class) field.set(object, number.intValue());
+                    else if (type == long.class) field.set(object, number.longValue());
+                    else if (type == double.class) field.set(object, number.doubleValue());
+                    else if (type == short.class) field.set(object, number.shortValue());
+                    else if (type == byte.class) field.set(object, number.byteValue());
+                    else if (type == char.class) field.set(object, (char) number.intValue());
+                } else if (value instanceof Boolean && type == boolean.class) {
+                    field.set(object, value);
+                }
+            } else if (value == null || ClassReflection.isInstance(type, value)) {
+                field.set(object, value);
+            }
+        } catch (ReflectionException e) {
+            throw new GdxRuntimeException("Error reading field " + field.getName() + " of " + object.getClass().getName(), e);
+        }
+    }
+
+    private int stringId(String string) {
+        int id = stringIds.get(string, -1);
+        if (id == -1) {
+            id = strings.size;
+            strings.add(string);
+            stringIds.put(string, id);
+        }
+        return id;
+    }
+
+    private int classId(Class<?> type, boolean withFields) {
+        int id = classIds.get(type, -1);
+        if (id == -1) {
+            id = classes.size;
+            classes.add(type);
+            classIds.put(type, id);
+            stringId(type.getName());
+        }
+        if (withFields && classesWithFields.add(type)) {
+            for (Field field : getClassInfo(type).fields) stringId(field.getName());
+        }
+        return id;
+    }
+
+    private ClassInfo getClassInfo(Class<?> type) {
+        ClassInfo info = classInfos.get(type);
+        if (info == null) {
+            info = new ClassInfo();
+            Array<Class<?>> hierarchy = new Array<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.add(c);
+            }
+            Array<Field> fields = new Array<>(Field.class);
+            for (int i = hierarchy.size - 1; i >= 0; i--) {
+                for (Field field : ClassReflection.getDeclaredFields(hierarchy.get(i))) {
+                    if (field.isTransient() || field.isStatic() || field.isSynthetic())
+                        continue;
+                    if (!field.isAccessible())
+                        field.setAccessible(true);
+                    fields.add(field);
+                    info.fieldsByName.put(field.getName(), field);
+                }
+            }
+            info.fields = fields.toArray();
+            classInfos.put(type, info);
+        }
+        return info;
+    }
+
+    private int readVarInt() {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position++];
+            result |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return result;
+        }
+    }
+
+    private int readInt() {
+        return (data[position++] & 0xFF) << 24 | (data[position++] & 0xFF) << 16
+                | (data[position++] & 0xFF) << 8 | (data[position++] & 0xFF);
+    }
+
+    private long readLong() {
+        return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class ClassInfo {
+        Field[] fields;
+        final ObjectMap<String, Field> fieldsByName = new ObjectMap<>();
+    }
+
+    private static class Output {
+        byte[] bytes;
+        int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void ensureCapacity(int additional) {
+            if (size + additional > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(size + additional, bytes.length * 2));
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeFloat(float value) {
+            writeInt(Float.floatToIntBits(value));
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import games.rednblack.editor.renderer.data.ProjectInfoVO;
+import games.rednblack.editor.renderer.data.SceneVO;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Convert exported .dt files of a project to the {@link HyperBinary} format, binary files are written next to the
+ * json ones with the {@link HyperBinary#EXTENSION} extension and are preferred by
+ * {@link games.rednblack.editor.renderer.resources.ResourceManager} when present. Binary files store the crc of
+ * their json, so exporting a scene again without converting it makes the loader fall back to the json file.
+ * <pre>
+ * java -cp ... games.rednblack.editor.renderer.utils.HyperBinaryConverter path/to/assets [scenesPath]
+ * </pre>
+ */
+public class HyperBinaryConverter {
+    private final Json json = HyperJson.createJson();
+    private final HyperBinary binary = new HyperBinary();
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: HyperBinaryConverter <assets directory> [scenes path]");
+            return;
+        }
+
+        HyperBinaryConverter converter = new HyperBinaryConverter();
+        FileHandle assets = new FileHandle(args[0]);
+        int converted = converter.convertProject(assets, args.length > 1 ? args[1] : "scenes");
+        System.out.println("Converted " + converted + " files in " + assets.path());
+    }
+
+    /**
+     * Convert project.dt and all the scenes of the project
+     *
+     * @return number of converted files
+     */
+    public int convertProject(FileHandle assets, String scenesPath) {
+        FileHandle projectFile = assets.child("project.dt");
+        ProjectInfoVO projectVO = convert(ProjectInfoVO.class, projectFile);
+        int converted = 1;
+
+        FileHandle scenes = assets.child(scenesPath);
+        for (SceneVO scene : projectVO.scenes) {
+            FileHandle sceneFile = scenes.child(scene.sceneName + ".dt");
+            if (sceneFile.exists()) {
+                convert(SceneVO.class, sceneFile);
+                converted++;
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * Convert a single json file, the binary file is written next to it
+     *
+     * @return the converted data
+     */
+    public <T> T convert(Class<T> type, FileHandle jsonFile) {
+        byte[] source = jsonFile.readBytes();
+        T data = json.fromJson(type, new String(source, StandardCharsets.UTF_8));
+        binary.toFile(data, jsonFile.sibling(jsonFile.nameWithoutExtension() + HyperBinary.EXTENSION), HyperBinary.checksum(source));
+        return data;
+    }
+}
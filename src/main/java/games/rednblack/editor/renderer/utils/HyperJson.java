@@ -9,22 +9,31 @@ public class HyperJson {
 
     public static Json getJson() {
         if (json == null){
-            json = new Json();
-            json.setIgnoreUnknownFields(true);
-            json.setOutputType(JsonWriter.OutputType.json);
-
-            json.addClassTag(CompositeItemVO.class.getSimpleName(), CompositeItemVO.class);
-            json.addClassTag(LightVO.class.getSimpleName(), LightVO.class);
-            json.addClassTag(ParticleEffectVO.class.getSimpleName(), ParticleEffectVO.class);
-            json.addClassTag(SimpleImageVO.class.getSimpleName(), SimpleImageVO.class);
-            json.addClassTag(SpriteAnimationVO.class.getSimpleName(), SpriteAnimationVO.class);
-            json.addClassTag(LabelVO.class.getSimpleName(), LabelVO.class);
-            json.addClassTag(Image9patchVO.class.getSimpleName(), Image9patchVO.class);
-            json.addClassTag(ColorPrimitiveVO.class.getSimpleName(), ColorPrimitiveVO.class);
+            json = createJson();
         }
         return json;
     }
 
+    /**
+     * New instance with the same configuration of {@link #getJson()}.
+     * {@link Json} isn't thread safe, every thread parsing data must use its own instance.
+     */
+    public static Json createJson() {
+        Json json = new Json();
+        json.setIgnoreUnknownFields(true);
+        json.setOutputType(JsonWriter.OutputType.json);
+
+        json.addClassTag(CompositeItemVO.class.getSimpleName(), CompositeItemVO.class);
+        json.addClassTag(LightVO.class.getSimpleName(), LightVO.class);
+        json.addClassTag(ParticleEffectVO.class.getSimpleName(), ParticleEffectVO.class);
+        json.addClassTag(SimpleImageVO.class.getSimpleName(), SimpleImageVO.class);
+        json.addClassTag(SpriteAnimationVO.class.getSimpleName(), SpriteAnimationVO.class);
+        json.addClassTag(LabelVO.class.getSimpleName(), LabelVO.class);
+        json.addClassTag(Image9patchVO.class.getSimpleName(), Image9patchVO.class);
+        json.addClassTag(ColorPrimitiveVO.class.getSimpleName(), ColorPrimitiveVO.class);
+        return json;
+    }
+
     private HyperJson() {
 
     }
@@ -0,0 +1,85 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.artemis.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/**
+ * Faster {@link World#inject(Object)} for objects created many times, like components.
+ * The first object of each class is injected by the world and the fields set by the injection are recorded,
+ * next objects of the same class get the recorded values directly instead of resolving every field again.
+ * Injected values are mappers, systems and registered objects of the world, so they are the same for every object.
+ */
+public class InjectionCache {
+    private final World engine;
+    private final ObjectMap<Class<?>, InjectedFields> cache = new ObjectMap<>();
+
+    public InjectionCache(World engine) {
+        this.engine = engine;
+    }
+
+    public void inject(Object object) {
+        Class<?> type = object.getClass();
+        if (!cache.containsKey(type))
+            cache.put(type, record(type));
+
+        InjectedFields injectedFields = cache.get(type);
+        if (injectedFields == null) {
+            engine.inject(object);
+            return;
+        }
+
+        try {
+            for (int i = 0; i < injectedFields.fields.size; i++) {
+                injectedFields.fields.get(i).set(object, injectedFields.values.get(i));
+            }
+        } catch (ReflectionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Inject a new object of the class and compare its fields before and after the injection
+     */
+    private InjectedFields record(Class<?> type) {
+        InjectedFields injectedFields = new InjectedFields();
+        try {
+            Object template = ClassReflection.newInstance(type);
+
+            Array<Object> before = new Array<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : ClassReflection.getDeclaredFields(c)) {
+                    if (field.isStatic() || field.isFinal() || field.getType().isPrimitive())
+                        continue;
+                    field.setAccessible(true);
+                    injectedFields.fields.add(field);
+                    before.add(field.get(template));
+                }
+            }
+
+            engine.inject(template);
+
+            for (int i = injectedFields.fields.size - 1; i >= 0; i--) {
+                Object value = injectedFields.fields.get(i).get(template);
+                if (value == null || value == before.get(i)) {
+                    injectedFields.fields.removeIndex(i);
+                } else {
+                    injectedFields.values.add(value);
+                }
+            }
+            injectedFields.values.reverse();
+        } catch (ReflectionException e) {
+            //No default constructor or inaccessible fields, always use the world injection
+            return null;
+        }
+        return injectedFields;
+    }
+
+    private static class InjectedFields {
+        private final Array<Field> fields = new Array<>();
+        private final Array<Object> values = new Array<>();
+    }
+}
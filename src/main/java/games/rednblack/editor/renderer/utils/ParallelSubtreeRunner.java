@@ -0,0 +1,114 @@
+package games.rednblack.editor.renderer.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Split the children of a node in chunks and process their subtrees on a {@link ForkJoinPool}.
+ * Each chunk is handled by a single thread, so jobs that write only to the components of the
+ * entities in their subtree don't need any locking.
+ */
+public class ParallelSubtreeRunner {
+
+    public interface SubtreeJob {
+        /**
+         * Process the subtree of the given entity
+         *
+         * @param entity child of the partitioned node
+         * @param chunk index of the chunk in [0, {@link #getChunksCount()}), can be used to access per thread data
+         */
+        void process(int entity, int chunk);
+    }
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final ChunkTask[] tasks;
+    private final RootTask rootTask = new RootTask();
+
+    public ParallelSubtreeRunner(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be >= 1.");
+        this.parallelism = parallelism;
+        pool = new ForkJoinPool(parallelism);
+        //More chunks than threads to balance subtrees of different sizes
+        tasks = new ChunkTask[parallelism * 4];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new ChunkTask(i);
+        }
+    }
+
+    /**
+     * Process the subtrees of the first size children and wait for all of them to complete.
+     */
+    public void run(int[] children, int size, SubtreeJob job) {
+        if (size == 0) return;
+
+        int chunkSize = (size + tasks.length - 1) / tasks.length;
+        int count = 0;
+        for (int start = 0; start < size; start += chunkSize) {
+            ChunkTask task = tasks[count++];
+            task.reinitialize();
+            task.children = children;
+            task.start = start;
+            task.end = Math.min(size, start + chunkSize);
+            task.job = job;
+        }
+
+        rootTask.reinitialize();
+        rootTask.count = count;
+        try {
+            pool.invoke(rootTask);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                tasks[i].children = null;
+                tasks[i].job = null;
+            }
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getChunksCount() {
+        return tasks.length;
+    }
+
+    public void dispose() {
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("serial")
+    private class RootTask extends RecursiveAction {
+        int count;
+
+        @Override
+        protected void compute() {
+            for (int i = 1; i < count; i++) {
+                tasks[i].fork();
+            }
+            tasks[0].invoke();
+            for (int i = 1; i < count; i++) {
+                tasks[i].join();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveAction {
+        final int chunk;
+        int[] children;
+        int start, end;
+        SubtreeJob job;
+
+        ChunkTask(int chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = start; i < end; i++) {
+                job.process(children[i], chunk);
+            }
+        }
+    }
+}
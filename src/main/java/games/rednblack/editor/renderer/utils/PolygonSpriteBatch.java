@@ -96,6 +96,22 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
     /** The maximum number of triangles rendered in one batch so far. **/
     public int maxTrianglesInBatch = 0;
 
+    /** Causes of a flush, used as index of {@link #totalFlushes} **/
+    public static final int FLUSH_OTHER = 0;
+    public static final int FLUSH_TEXTURE = 1;
+    public static final int FLUSH_SHADER = 2;
+    public static final int FLUSH_BLEND = 3;
+    public static final int FLUSH_MATRIX = 4;
+    public static final int FLUSH_FULL = 5;
+    public static final int FLUSH_END = 6;
+    public static final int FLUSH_FBO = 7;
+    public static final int FLUSH_SCISSOR = 8;
+    public static final int FLUSH_CAUSES = 9;
+
+    /** Number of rendering calls by cause, ever. Will not be reset unless set manually. **/
+    public final int[] totalFlushes = new int[FLUSH_CAUSES];
+    private int flushCause = FLUSH_OTHER;
+
     /** Constructs a PolygonSpriteBatch with the default shader, 2000 vertices, and 4000 triangles.
      * @see #PolygonSpriteBatch(int, int, ShaderProgram) */
     public PolygonSpriteBatch() {
@@ -170,7 +186,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
     @Override
     public void end () {
         if (!drawing) throw new IllegalStateException("PolygonSpriteBatch.begin must be called before end.");
-        if (vertexIndex > 0) flush();
+        if (vertexIndex > 0) flush(FLUSH_END);
         lastTexture = null;
         drawing = false;
 
@@ -221,7 +237,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + regionTrianglesLength > triangles.length
-                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush();
+                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         int vertexIndex = this.vertexIndex;
@@ -260,7 +276,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + regionTrianglesLength > triangles.length
-                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush();
+                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         int vertexIndex = this.vertexIndex;
@@ -302,7 +318,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + regionTrianglesLength > triangles.length
-                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush();
+                || vertexIndex + regionVerticesLength * VERTEX_SIZE / 2 > vertices.length) flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         int vertexIndex = this.vertexIndex;
@@ -347,7 +363,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + trianglesCount > triangles.length || vertexIndex + verticesCount > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int vertexIndex = this.vertexIndex;
@@ -372,7 +388,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -514,7 +530,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -583,7 +599,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -640,7 +656,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -698,7 +714,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -759,7 +775,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
             batch = Math.min(Math.min(count, vertices.length - (vertices.length % SPRITE_SIZE)), triangles.length / 6 * SPRITE_SIZE);
             triangleCount = batch / SPRITE_SIZE * 6;
         } else if (triangleIndex + triangleCount > triangles.length || vertexIndex + count > vertices.length) {
-            flush();
+            flush(FLUSH_FULL);
             batch = Math.min(Math.min(count, vertices.length - (vertices.length % SPRITE_SIZE)), triangles.length / 6 * SPRITE_SIZE);
             triangleCount = batch / SPRITE_SIZE * 6;
         } else
@@ -784,7 +800,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
             count -= batch;
             if (count == 0) break;
             offset += batch;
-            flush();
+            flush(FLUSH_FULL);
             vertexIndex = 0;
             if (batch > count) {
                 batch = Math.min(count, triangles.length / 6 * SPRITE_SIZE);
@@ -809,7 +825,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -868,7 +884,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -999,7 +1015,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -1145,7 +1161,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         if (texture != lastTexture)
             switchTexture(texture);
         else if (triangleIndex + 6 > triangles.length || vertexIndex + SPRITE_SIZE > vertices.length) //
-            flush();
+            flush(FLUSH_FULL);
 
         int triangleIndex = this.triangleIndex;
         final int startVertex = vertexIndex / VERTEX_SIZE;
@@ -1200,12 +1216,22 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
         vertexIndex = idx;
     }
 
+    /**
+     * Flush the batch counting the render call, if any, with the given cause in {@link #totalFlushes}
+     */
+    public void flush (int cause) {
+        flushCause = cause;
+        flush();
+        flushCause = FLUSH_OTHER;
+    }
+
     @Override
     public void flush () {
         if (vertexIndex == 0) return;
 
         renderCalls++;
         totalRenderCalls++;
+        totalFlushes[flushCause]++;
         int trianglesInBatch = triangleIndex;
         if (trianglesInBatch > maxTrianglesInBatch) maxTrianglesInBatch = trianglesInBatch;
 
@@ -1228,13 +1254,13 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
 
     @Override
     public void disableBlending () {
-        flush();
+        flush(FLUSH_BLEND);
         blendingDisabled = true;
     }
 
     @Override
     public void enableBlending () {
-        flush();
+        flush(FLUSH_BLEND);
         blendingDisabled = false;
     }
 
@@ -1247,7 +1273,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
     public void setBlendFunctionSeparate (int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
         if (blendSrcFunc == srcFuncColor && blendDstFunc == dstFuncColor && blendSrcFuncAlpha == srcFuncAlpha
                 && blendDstFuncAlpha == dstFuncAlpha) return;
-        flush();
+        flush(FLUSH_BLEND);
         blendSrcFunc = srcFuncColor;
         blendDstFunc = dstFuncColor;
         blendSrcFuncAlpha = srcFuncAlpha;
@@ -1292,14 +1318,14 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
 
     @Override
     public void setProjectionMatrix (Matrix4 projection) {
-        if (drawing) flush();
+        if (drawing) flush(FLUSH_MATRIX);
         projectionMatrix.set(projection);
         if (drawing) setupMatrices();
     }
 
     @Override
     public void setTransformMatrix (Matrix4 transform) {
-        if (drawing) flush();
+        if (drawing) flush(FLUSH_MATRIX);
         transformMatrix.set(transform);
         if (drawing) setupMatrices();
     }
@@ -1316,7 +1342,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
     }
 
     protected void switchTexture (Texture texture) {
-        flush();
+        flush(FLUSH_TEXTURE);
         lastTexture = texture;
         invTexWidth = 1.0f / texture.getWidth();
         invTexHeight = 1.0f / texture.getHeight();
@@ -1325,7 +1351,7 @@ public class PolygonSpriteBatch extends com.badlogic.gdx.graphics.g2d.PolygonSpr
     @Override
     public void setShader (ShaderProgram shader) {
         if (drawing) {
-            flush();
+            flush(FLUSH_SHADER);
         }
         customShader = shader;
         if (drawing) {
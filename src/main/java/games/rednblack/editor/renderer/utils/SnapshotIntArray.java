@@ -0,0 +1,185 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Primitive int version of {@link com.badlogic.gdx.utils.SnapshotArray}.
+ * An {@link IntArray} that allows modification during iteration, the backing array is copied only
+ * if it is modified between {@link #begin()} and {@link #end()}.
+ * <pre>
+ * int[] items = array.begin();
+ * for (int i = 0, n = array.size; i &lt; n; i++) {
+ * 	int item = items[i];
+ * 	// ...
+ * }
+ * array.end();
+ * </pre>
+ */
+public class SnapshotIntArray extends IntArray {
+    private int[] snapshot, recycled;
+    private int snapshots;
+
+    public SnapshotIntArray() {
+        super();
+    }
+
+    public SnapshotIntArray(int capacity) {
+        super(capacity);
+    }
+
+    public SnapshotIntArray(boolean ordered, int capacity) {
+        super(ordered, capacity);
+    }
+
+    public SnapshotIntArray(IntArray array) {
+        super(array);
+    }
+
+    /**
+     * Returns the backing array, which is guaranteed to not be modified before {@link #end()}.
+     */
+    public int[] begin() {
+        modified();
+        snapshot = items;
+        snapshots++;
+        return items;
+    }
+
+    /**
+     * Releases the guarantee that the array returned by {@link #begin()} won't be modified.
+     */
+    public void end() {
+        snapshots = Math.max(0, snapshots - 1);
+        if (snapshot == null) return;
+        if (snapshot != items && snapshots == 0) {
+            //The backing array was copied, keep around the old array
+            recycled = snapshot;
+        }
+        snapshot = null;
+    }
+
+    private void modified() {
+        if (snapshot == null || snapshot != items) return;
+        //Snapshot is in use, copy backing array to recycled array or create new backing array
+        if (recycled != null && recycled.length >= size) {
+            System.arraycopy(items, 0, recycled, 0, size);
+            items = recycled;
+            recycled = null;
+        } else
+            resize(items.length);
+    }
+
+    @Override
+    public void set(int index, int value) {
+        modified();
+        super.set(index, value);
+    }
+
+    @Override
+    public void incr(int index, int value) {
+        modified();
+        super.incr(index, value);
+    }
+
+    @Override
+    public void incr(int value) {
+        modified();
+        super.incr(value);
+    }
+
+    @Override
+    public void mul(int index, int value) {
+        modified();
+        super.mul(index, value);
+    }
+
+    @Override
+    public void mul(int value) {
+        modified();
+        super.mul(value);
+    }
+
+    @Override
+    public void insert(int index, int value) {
+        modified();
+        super.insert(index, value);
+    }
+
+    @Override
+    public void insertRange(int index, int count) {
+        modified();
+        super.insertRange(index, count);
+    }
+
+    @Override
+    public void swap(int first, int second) {
+        modified();
+        super.swap(first, second);
+    }
+
+    @Override
+    public boolean removeValue(int value) {
+        modified();
+        return super.removeValue(value);
+    }
+
+    @Override
+    public int removeIndex(int index) {
+        modified();
+        return super.removeIndex(index);
+    }
+
+    @Override
+    public void removeRange(int start, int end) {
+        modified();
+        super.removeRange(start, end);
+    }
+
+    @Override
+    public boolean removeAll(IntArray array) {
+        modified();
+        return super.removeAll(array);
+    }
+
+    @Override
+    public int pop() {
+        modified();
+        return super.pop();
+    }
+
+    @Override
+    public void clear() {
+        modified();
+        super.clear();
+    }
+
+    @Override
+    public void sort() {
+        modified();
+        super.sort();
+    }
+
+    @Override
+    public void reverse() {
+        modified();
+        super.reverse();
+    }
+
+    @Override
+    public void shuffle() {
+        modified();
+        super.shuffle();
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        modified();
+        super.truncate(newSize);
+    }
+
+    @Override
+    public int[] setSize(int newSize) {
+        modified();
+        return super.setSize(newSize);
+    }
+}
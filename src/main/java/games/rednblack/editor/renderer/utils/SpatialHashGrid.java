@@ -0,0 +1,184 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid spatial index of entities' bounding rectangles.
+ * Each entity is stored in every cell its rectangle overlaps, entities spanning
+ * more than {@link #getMaxCellsPerEntity()} cells are kept in a separate list that is always returned by queries.
+ * Only cells holding entities are kept, so memory depends on the occupied area and queries visit at most
+ * the occupied cells, even when the view covers many more.
+ */
+public class SpatialHashGrid {
+    private final float cellSize;
+    private final float invCellSize;
+    private int maxCellsPerEntity = 64;
+
+    private final LongMap<IntBag> cells = new LongMap<>();
+    private final Array<IntBag> freeCells = new Array<>();
+    //Cell range of each entity stored as {minX, minY, maxX, maxY, oversized}
+    private final IntMap<int[]> entityCells = new IntMap<>();
+    private final IntBag oversized = new IntBag();
+
+    private final BitVector queryMarks = new BitVector();
+
+    public SpatialHashGrid(float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("Cell size must be > 0.");
+        this.cellSize = cellSize;
+        this.invCellSize = 1f / cellSize;
+    }
+
+    /**
+     * Insert the entity or update its cells if already indexed
+     */
+    public void update(int entity, Rectangle rectangle) {
+        int minX = MathUtils.floor(rectangle.x * invCellSize);
+        int minY = MathUtils.floor(rectangle.y * invCellSize);
+        int maxX = MathUtils.floor((rectangle.x + rectangle.width) * invCellSize);
+        int maxY = MathUtils.floor((rectangle.y + rectangle.height) * invCellSize);
+
+        int[] range = entityCells.get(entity);
+        if (range != null) {
+            if (range[0] == minX && range[1] == minY && range[2] == maxX && range[3] == maxY)
+                return;
+            removeFromCells(entity, range);
+        } else {
+            range = new int[5];
+            entityCells.put(entity, range);
+        }
+
+        range[0] = minX;
+        range[1] = minY;
+        range[2] = maxX;
+        range[3] = maxY;
+        range[4] = 0;
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > maxCellsPerEntity) {
+            range[4] = 1;
+            oversized.add(entity);
+            return;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                long key = key(x, y);
+                IntBag cell = cells.get(key);
+                if (cell == null) {
+                    cell = freeCells.size > 0 ? freeCells.pop() : new IntBag();
+                    cells.put(key, cell);
+                }
+                cell.add(entity);
+            }
+        }
+    }
+
+    public void remove(int entity) {
+        int[] range = entityCells.remove(entity);
+        if (range != null)
+            removeFromCells(entity, range);
+    }
+
+    public boolean contains(int entity) {
+        return entityCells.containsKey(entity);
+    }
+
+    /**
+     * Collect all the entities stored in cells overlapping the rectangle.
+     * Results are a superset of entities actually overlapping it.
+     */
+    public IntBag query(Rectangle rectangle, IntBag result) {
+        result.clear();
+
+        int minX = MathUtils.floor(rectangle.x * invCellSize);
+        int minY = MathUtils.floor(rectangle.y * invCellSize);
+        int maxX = MathUtils.floor((rectangle.x + rectangle.width) * invCellSize);
+        int maxY = MathUtils.floor((rectangle.y + rectangle.height) * invCellSize);
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size) {
+            //View covers more cells than the occupied ones
+            for (LongMap.Entry<IntBag> entry : cells.entries()) {
+                int x = (int) (entry.key >> 32);
+                int y = (int) entry.key;
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                    collect(entry.value, result);
+            }
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    IntBag cell = cells.get(key(x, y));
+                    if (cell != null)
+                        collect(cell, result);
+                }
+            }
+        }
+
+        int[] ids = result.getData();
+        for (int i = 0, s = result.size(); s > i; i++) {
+            queryMarks.clear(ids[i]);
+        }
+
+        result.addAll(oversized);
+        return result;
+    }
+
+    public void clear() {
+        for (IntBag cell : cells.values()) {
+            cell.clear();
+            freeCells.add(cell);
+        }
+        cells.clear();
+        entityCells.clear();
+        oversized.clear();
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getMaxCellsPerEntity() {
+        return maxCellsPerEntity;
+    }
+
+    public void setMaxCellsPerEntity(int maxCellsPerEntity) {
+        this.maxCellsPerEntity = maxCellsPerEntity;
+    }
+
+    private void removeFromCells(int entity, int[] range) {
+        if (range[4] == 1) {
+            oversized.removeValue(entity);
+            return;
+        }
+
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                long key = key(x, y);
+                IntBag cell = cells.get(key);
+                if (cell != null && cell.removeValue(entity) && cell.isEmpty()) {
+                    cells.remove(key);
+                    freeCells.add(cell);
+                }
+            }
+        }
+    }
+
+    private void collect(IntBag cell, IntBag result) {
+        int[] ids = cell.getData();
+        for (int i = 0, s = cell.size(); s > i; i++) {
+            int id = ids[i];
+            if (!queryMarks.get(id)) {
+                queryMarks.set(id);
+                result.add(id);
+            }
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -0,0 +1,116 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Index of entities by tag, queries cost O(result) instead of scanning every entity.
+ * Indexed entities keep it updated through their {@link TagSet}.
+ * Entities of each tag are kept in a dense bag, add and remove are O(1) and order is not preserved.
+ * Bags of tags left without entities go back to a pool, so spawning and removing waves of tagged entities
+ * doesn't allocate once warmed up.
+ */
+public class TagIndex {
+    private static final IntBag EMPTY = new IntBag(0);
+
+    private final ObjectMap<String, TagEntities> index = new ObjectMap<>();
+    private final Pool<TagEntities> pool = new Pool<TagEntities>() {
+        @Override
+        protected TagEntities newObject() {
+            return new TagEntities();
+        }
+    };
+
+    public void add(String tag, int entity) {
+        TagEntities tagEntities = index.get(tag);
+        if (tagEntities == null) {
+            tagEntities = pool.obtain();
+            index.put(tag, tagEntities);
+        }
+        tagEntities.add(entity);
+    }
+
+    /**
+     * Index all the tags of the entity, later changes to the set are tracked until {@link #removeAll(TagSet, int)}
+     */
+    public void addAll(TagSet tags, int entity) {
+        tags.attach(this, entity);
+        for (String tag : tags) {
+            add(tag, entity);
+        }
+    }
+
+    public void remove(String tag, int entity) {
+        TagEntities tagEntities = index.get(tag);
+        if (tagEntities == null)
+            return;
+
+        tagEntities.remove(entity);
+        if (tagEntities.entities.isEmpty()) {
+            index.remove(tag);
+            pool.free(tagEntities);
+        }
+    }
+
+    public void removeAll(TagSet tags, int entity) {
+        tags.detach();
+        for (String tag : tags) {
+            remove(tag, entity);
+        }
+    }
+
+    /**
+     * @return entities with the tag, the bag is owned by the index and must not be modified,
+     * it changes when tags are added or removed so copy it to add or remove tags while iterating
+     */
+    public IntBag get(String tag) {
+        TagEntities tagEntities = index.get(tag);
+        return tagEntities != null ? tagEntities.entities : EMPTY;
+    }
+
+    public boolean contains(String tag, int entity) {
+        TagEntities tagEntities = index.get(tag);
+        return tagEntities != null && tagEntities.positions.containsKey(entity);
+    }
+
+    public void clear() {
+        for (TagEntities tagEntities : index.values()) {
+            pool.free(tagEntities);
+        }
+        index.clear();
+    }
+
+    private static class TagEntities implements Pool.Poolable {
+        private final IntBag entities = new IntBag();
+        private final IntIntMap positions = new IntIntMap();
+
+        void add(int entity) {
+            if (positions.containsKey(entity))
+                return;
+            positions.put(entity, entities.size());
+            entities.add(entity);
+        }
+
+        void remove(int entity) {
+            int position = positions.remove(entity, -1);
+            if (position == -1)
+                return;
+
+            int last = entities.size() - 1;
+            if (position != last) {
+                int moved = entities.get(last);
+                entities.set(position, moved);
+                positions.put(moved, position);
+            }
+            entities.setSize(last);
+        }
+
+        @Override
+        public void reset() {
+            entities.clear();
+            positions.clear();
+        }
+    }
+}
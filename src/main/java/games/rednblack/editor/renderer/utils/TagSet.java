@@ -0,0 +1,69 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Tags of an entity that keep the {@link TagIndex} updated.
+ * Once the entity is indexed, tags added, removed or cleared through this set are reflected by tag queries.
+ * Removing tags with {@link ObjectSetIterator#remove()} isn't tracked.
+ */
+public class TagSet extends ObjectSet<String> {
+    private TagIndex index;
+    private int entity = -1;
+
+    void attach(TagIndex index, int entity) {
+        this.index = index;
+        this.entity = entity;
+    }
+
+    void detach() {
+        index = null;
+        entity = -1;
+    }
+
+    @Override
+    public boolean add(String tag) {
+        if (!super.add(tag))
+            return false;
+        if (index != null)
+            index.add(tag, entity);
+        return true;
+    }
+
+    @Override
+    public boolean remove(String tag) {
+        if (!super.remove(tag))
+            return false;
+        if (index != null)
+            index.remove(tag, entity);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        removeFromIndex();
+        super.clear();
+    }
+
+    @Override
+    public void clear(int maximumCapacity) {
+        removeFromIndex();
+        super.clear(maximumCapacity);
+    }
+
+    /**
+     * Remove all the tags from the index and stop tracking the entity
+     */
+    public void reset() {
+        clear();
+        detach();
+    }
+
+    private void removeFromIndex() {
+        if (index == null)
+            return;
+        for (String tag : this) {
+            index.remove(tag, entity);
+        }
+    }
+}
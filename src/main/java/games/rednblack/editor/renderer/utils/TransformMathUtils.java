@@ -178,6 +178,20 @@ public class TransformMathUtils {
 
     }
 
+    /**
+     * Set the affine transform from the entity's coordinates to its parent's coordinates.
+     */
+    public static Affine2 localTransform(TransformComponent transform, Affine2 out) {
+        float originX = transform.originX;
+        float originY = transform.originY;
+        float scaleX = transform.scaleX * (transform.flipX ? -1 : 1);
+        float scaleY = transform.scaleY * (transform.flipY ? -1 : 1);
+
+        out.setToTrnRotScl(transform.x + originX, transform.y + originY, transform.rotation, scaleX, scaleY);
+        if (originX != 0 || originY != 0) out.translate(-originX, -originY);
+        return out;
+    }
+
     public static Matrix4 computeTransform(TransformComponent curTransform) {
         Affine2 worldTransform = curTransform.worldTransform;
 